@@ -53,6 +53,8 @@ dependencies {
 
     compileOnly(project(":parser"))
     annotationProcessor(project(":parser"))
+
+    testImplementation(project(":parser"))
 }
 
 publishing {
@@ -169,16 +171,19 @@ val updateModuleInfo by tasks.registering {
         Files.newBufferedWriter(desc).use { w ->
             w.append(Files.readString(header))
             w.append("import com.fasterxml.jackson.databind.Module;\n")
+            w.append("import telegram4j.tl.api.TlInstrumentation;\n")
             w.append("import telegram4j.tl.json.TlModule;\n\n")
             w.append("module telegram4j.tl {\n")
             w.append("\trequires io.netty.buffer;\n")
             w.append("\trequires reactor.core;\n")
             w.append("\trequires com.fasterxml.jackson.databind;\n\n")
-            w.append("\trequires static telegram4j.tl.parser;\n\n")
+            w.append("\trequires static telegram4j.tl.parser;\n")
+            w.append("\trequires static java.compiler;\n\n")
             for (export in exports) {
                 w.append("\texports ").append(export).append(";\n")
             }
             w.append('\n')
+            w.append("\tuses TlInstrumentation;\n\n")
             w.append("\tprovides Module with TlModule;\n")
             w.append("}\n")
         }
@@ -189,6 +194,95 @@ tasks.classes {
     dependsOn(updateModuleInfo)
 }
 
+// TlInstrumentation provider is registered for the whole JVM, so the test
+// of instrumentation has own source set and runs in separate JVM
+val instrumentationTest by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output
+    runtimeClasspath += sourceSets.main.get().output
+}
+
+configurations.named("instrumentationTestImplementation") {
+    extendsFrom(configurations.testImplementation.get())
+}
+
+configurations.named("instrumentationTestRuntimeOnly") {
+    extendsFrom(configurations.testRuntimeOnly.get())
+}
+
+val instrumentationTestTask = tasks.register<Test>("instrumentationTest") {
+    group = "verification"
+    description = "Runs tests with TlInstrumentation provider registered."
+
+    testClassesDirs = instrumentationTest.output.classesDirs
+    classpath = instrumentationTest.runtimeClasspath
+    shouldRunAfter(tasks.test)
+
+    useJUnitPlatform()
+
+    testLogging {
+        exceptionFormat = TestExceptionFormat.FULL
+    }
+}
+
+tasks.check {
+    dependsOn(instrumentationTestTask)
+}
+
+// Class Data Sharing: warm-up of the codec records loaded classes,
+// which are dumped to the AppCDS archive for faster startup of applications
+val cds by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output
+    runtimeClasspath += sourceSets.main.get().output
+}
+
+configurations.named("cdsImplementation") {
+    extendsFrom(configurations.implementation.get())
+}
+
+val cdsJar by tasks.registering(Jar::class) {
+    archiveClassifier.set("cds")
+    from(cds.output)
+}
+
+// AppCDS archives classes only from jars, so the classpath must not contain directories
+val cdsClasspath = files(tasks.jar, cdsJar, configurations.runtimeClasspath)
+
+val cdsClassList by tasks.registering(JavaExec::class) {
+    group = "cds"
+    description = "Runs the codec warm-up and records list of loaded classes."
+
+    val classList = layout.buildDirectory.file("cds/telegram4j-tl.classlist")
+    outputs.file(classList)
+
+    classpath = cdsClasspath
+    mainClass.set("telegram4j.tl.cds.Warmup")
+    jvmArgumentProviders.add(CommandLineArgumentProvider {
+        listOf("-Xshare:off", "-XX:DumpLoadedClassList=${classList.get().asFile}")
+    })
+
+    doFirst {
+        classList.get().asFile.parentFile.mkdirs()
+    }
+}
+
+val cdsArchive by tasks.registering(JavaExec::class) {
+    group = "cds"
+    description = "Dumps AppCDS archive with classes from the recorded list."
+
+    val classList = cdsClassList.map { it.outputs.files.singleFile }
+    val archive = layout.buildDirectory.file("cds/telegram4j-tl.jsa")
+    inputs.file(classList)
+    outputs.file(archive)
+
+    // the JVM exits after dumping, without running the main class
+    classpath = cdsClasspath
+    mainClass.set("telegram4j.tl.cds.Warmup")
+    jvmArgumentProviders.add(CommandLineArgumentProvider {
+        listOf("-Xshare:dump", "-XX:SharedClassListFile=${classList.get()}",
+            "-XX:SharedArchiveFile=${archive.get().asFile}")
+    })
+}
+
 tasks.javadoc {
     source += fileTree(tasks.compileJava.flatMap { it.options.generatedSourceOutputDirectory })
 
@@ -20,9 +20,13 @@ dependencies {
     annotationProcessor(libs.immutables.value)
 }
 
+// resources are processed after compileSchemes, so tasks which run
+// before it must not depend on them through runtime classpath of main source set
+val toolClasspath = sourceSets.main.get().output.classesDirs + configurations.runtimeClasspath.get()
+
 val updateSchemas by tasks.registering(JavaExec::class) {
     mainClass.set("telegram4j.tl.parser.SchemaUpdater")
-    classpath = sourceSets.main.get().runtimeClasspath
+    classpath = toolClasspath
 }
 
 // TODO update api scheme before processing
@@ -30,3 +34,45 @@ val updateSchemas by tasks.registering(JavaExec::class) {
 tasks.compileJava {
     finalizedBy(updateSchemas)
 }
+
+// binary schemes are read by the generator instead of json ones
+val compileSchemes by tasks.registering(JavaExec::class) {
+    val output = layout.buildDirectory.dir("generated/resources/schemes")
+    val schemes = fileTree("src/main/resources") { include("*.json") }
+
+    mustRunAfter(updateSchemas)
+    inputs.files(schemes)
+    outputs.dir(output)
+
+    mainClass.set("telegram4j.tl.parser.BinaryScheme")
+    classpath = toolClasspath
+    argumentProviders.add(CommandLineArgumentProvider {
+        listOf(output.get().asFile.path) + schemes.files.map { it.path }
+    })
+}
+
+sourceSets.main {
+    resources.srcDir(compileSchemes)
+}
+
+val jmh by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output
+    runtimeClasspath += sourceSets.main.get().output
+}
+
+configurations.named("jmhImplementation") {
+    extendsFrom(configurations.implementation.get())
+}
+
+dependencies {
+    "jmhImplementation"(libs.jmh.core)
+    "jmhAnnotationProcessor"(libs.jmh.generator)
+}
+
+val jmhRun by tasks.registering(JavaExec::class) {
+    group = "benchmark"
+    description = "Runs JMH benchmarks of the parser."
+
+    classpath = jmh.runtimeClasspath
+    mainClass.set("org.openjdk.jmh.Main")
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2023 Telegram4J
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package telegram4j.tl.parser;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TlParserBenchmark {
+
+    String content;
+
+    @Setup
+    public void setup() throws IOException {
+        try (InputStream is = getClass().getResourceAsStream("/api.tl")) {
+            Objects.requireNonNull(is, "Unable to find bundled scheme");
+            content = new String(is.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Benchmark
+    public void reader(Buffer buffer, Blackhole bh) throws IOException {
+        consume(new TlParser(new StringReader(content), buffer.size), bh);
+    }
+
+    @Benchmark
+    public void content(Blackhole bh) throws IOException {
+        consume(new TlParser(content), bh);
+    }
+
+    static void consume(TlParser parser, Blackhole bh) throws IOException {
+        try (TlParser p = parser) {
+            TlParser.Token t;
+            while ((t = p.nextToken()) != null) {
+                switch (t) {
+                    case ID, NAME, TYPE_NAME -> bh.consume(p.asTextValue());
+                    default -> bh.consume(t);
+                }
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Buffer {
+        @Param({"512", "8192"})
+        int size;
+    }
+}
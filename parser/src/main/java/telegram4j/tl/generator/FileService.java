@@ -23,12 +23,20 @@ import javax.tools.StandardLocation;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
 
 import static telegram4j.tl.generator.SchemaGeneratorConsts.TEMPLATE_PACKAGE_INFO;
 
 public class FileService {
     private final String licenseHeader;
     private final Filer filer;
+    // rendered in parallel sources, which are written in order of submission
+    private final Queue<CompletableFuture<Source>> pending = new ArrayDeque<>();
 
     public FileService(Filer filer) {
         this.filer = filer;
@@ -44,16 +52,65 @@ public class FileService {
     }
 
     public void writeTo(TopLevelRenderer renderer) {
-        CharSequence seq = renderer.complete();
+        write(new Source(renderer.name.qualifiedName(), renderer.complete()));
+    }
+
+    /**
+     * Renders source by specified task on the fork-join pool. Rendered source is written
+     * by subsequent calls on the processor thread, because {@link Filer} isn't thread-safe.
+     *
+     * @param task The task which generates independent source.
+     */
+    public void submit(Supplier<? extends TopLevelRenderer> task) {
+        pending.add(CompletableFuture.supplyAsync(() -> {
+            TopLevelRenderer renderer = task.get();
+            return new Source(renderer.name.qualifiedName(), renderer.complete());
+        }, ForkJoinPool.commonPool()));
+
+        // release memory of sources which are already rendered
+        CompletableFuture<Source> head;
+        while ((head = pending.peek()) != null && head.isDone()) {
+            write(join(pending.poll()));
+        }
+    }
+
+    /** Waits for all submitted tasks and writes their sources. */
+    public void flush() {
+        CompletableFuture<Source> head;
+        while ((head = pending.poll()) != null) {
+            write(join(head));
+        }
+    }
+
+    private Source join(CompletableFuture<Source> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            // cancel remaining tasks, their sources will not be written anyway
+            pending.forEach(f -> f.cancel(false));
+            pending.clear();
+
+            if (e.getCause() instanceof RuntimeException r) {
+                throw r;
+            } else if (e.getCause() instanceof Error r) {
+                throw r;
+            }
+            throw e;
+        }
+    }
+
+    private void write(Source source) {
         try {
-            String filename = renderer.name.qualifiedName().replace('/', '.');
+            String filename = source.name.replace('/', '.');
             JavaFileObject fo = filer.createSourceFile("telegram4j.tl/" + filename);
             try (Writer w = fo.openWriter()) {
                 w.append(licenseHeader);
-                w.append(seq);
+                w.append(source.content);
             }
         } catch (IOException e) {
             throw new UncheckedIOException(e);
         }
     }
+
+    record Source(String name, CharSequence content) {}
 }
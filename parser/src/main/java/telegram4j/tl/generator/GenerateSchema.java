@@ -21,6 +21,36 @@ import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
 @Target(ElementType.PACKAGE)
-@Retention(RetentionPolicy.SOURCE)
+// class retention is required by Gradle for aggregating annotation processors
+@Retention(RetentionPolicy.CLASS)
 public @interface GenerateSchema {
+
+    /**
+     * Whether to generate immutable classes with compact field layout.
+     * In this layout optional reference attributes are stored in one array
+     * which contains only present values, and absent ones don't take any memory.
+     *
+     * @return {@code true} to enable compact field layout.
+     */
+    boolean compactLayout() default false;
+
+    /**
+     * Whether to split dispatch of {@code TlInfo.typeOf(int)} and {@code TlDeserializer.deserialize(ByteBuf)}
+     * into nested holder classes grouped by packages of types. Holders are loaded only
+     * when identifier from their package is dispatched and their methods are small enough for JIT compilation.
+     *
+     * @return {@code true} to enable lazy dispatch.
+     */
+    boolean lazyDispatch() default false;
+
+    /**
+     * Names of methods, constructors and types of api scheme which must be generated,
+     * e.g. {@code messages.sendMessage} or {@code Message}.
+     * Only these and types transitively referenced by them will be generated,
+     * objects of other types are rejected by deserializer as unknown.
+     * MTProto scheme is always generated completely.
+     *
+     * @return The names of root methods, constructors and types, or empty array to generate whole scheme.
+     */
+    String[] include() default {};
 }
@@ -35,14 +35,25 @@ import static telegram4j.tl.generator.ValueType.*;
 class ImmutableGenerator {
     private static final String hashCodeVariableName = "h";
     private static final String equalsVariableName = "that";
+    // limits size of tables with flyweight instances to 256 elements
+    private static final int FLYWEIGHT_MAX_BITS = 8;
+    // name of field with values of packed optional attributes
+    private static final String optionalsFieldName = "optionals";
 
     private final FileService fileService;
+    private final boolean compactLayout;
 
-    ImmutableGenerator(FileService fileService) {
+    ImmutableGenerator(FileService fileService, boolean compactLayout) {
         this.fileService = fileService;
+        this.compactLayout = compactLayout;
     }
 
     public void process(ValueType type) {
+        // types are independent, so can be rendered in parallel
+        fileService.submit(() -> render(type));
+    }
+
+    private TopLevelRenderer render(ValueType type) {
         var renderer = ClassRenderer.create(type.immutableType.rawType, ClassRenderer.Kind.CLASS)
                 .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
                 .addTypeVariables(type.typeVars)
@@ -58,9 +69,38 @@ class ImmutableGenerator {
                     .complete();
         }
 
+        String flyweightMask = flyweightMask(type);
+        if (flyweightMask != null) {
+            int size = 1 << type.attributes.stream()
+                    .filter(a -> a.flags.contains(ValueAttribute.Flag.BIT_FLAG))
+                    .mapToInt(a -> a.flagPos + 1)
+                    .max().orElseThrow();
+
+            renderer.addField(ArrayRef.of(type.immutableType.rawType, (short) 1), "INSTANCES",
+                            Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                    .initializer("new $T[$L]", type.immutableType.rawType, size)
+                    .complete();
+
+            renderer.addStaticInitializer()
+                    .addStatement("INSTANCES[0] = INSTANCE")
+                    .beginControlFlow("for (int i = 1; i < INSTANCES.length; i++) {")
+                    .addStatement("if ((i & ~($L)) == 0) INSTANCES[i] = new $T(i)", flyweightMask, type.immutableType.rawType)
+                    .endControlFlow()
+                    .complete();
+        }
+
+        List<ValueAttribute> packed = packedAttributes(type);
         for (ValueAttribute a : type.generated) {
+            if (packed.contains(a)) {
+                continue;
+            }
             renderer.addField(unboxOptional(a, type), a.name, Modifier.PRIVATE, Modifier.FINAL).complete();
         }
+
+        if (!packed.isEmpty()) {
+            renderer.addField(ArrayRef.of(ClassRef.OBJECT, (short) 1), optionalsFieldName,
+                    Modifier.PRIVATE, Modifier.FINAL).complete();
+        }
         // endregion
 
         // region constructors
@@ -69,7 +109,13 @@ class ImmutableGenerator {
             var singletonConstructor = renderer.addConstructor(Modifier.PRIVATE);
 
             for (ValueAttribute a : type.generated) {
-                singletonConstructor.addStatement("$L = $L", a.name, defaultValueFor(unboxOptional(a, type)));
+                if (!packed.contains(a)) {
+                    singletonConstructor.addStatement("$L = $L", a.name, defaultValueFor(unboxOptional(a, type)));
+                }
+            }
+
+            if (!packed.isEmpty()) {
+                singletonConstructor.addStatement("$L = $T.newOptionals(0)", optionalsFieldName, UTILITY);
             }
 
             singletonConstructor.complete();
@@ -137,7 +183,7 @@ class ImmutableGenerator {
 
                     params.add(a.name);
                     mandatoryOf.addParameter(paramType, a.name);
-                } else {
+                } else if (!packed.contains(a)) {
                     TypeRef unwrapped = unboxOptional(a, type);
                     mandatoryConstructorBody.addStatement("$L = $L", a.name, defaultValueFor(unwrapped));
                 }
@@ -145,6 +191,10 @@ class ImmutableGenerator {
                 prevNotOpt = !a.flags.contains(ValueAttribute.Flag.OPTIONAL);
             }
 
+            if (!packed.isEmpty()) {
+                mandatoryConstructorBody.addStatement("$L = $T.newOptionals(0)", optionalsFieldName, UTILITY);
+            }
+
             for (ValueAttribute a : sorted) {
                 if (a.type == BYTE_BUF && a.maxSize != -1) {
                     mandatoryOf.beginControlFlow("if ($L.readableBytes() != $L) {", a.name, a.maxSize);
@@ -168,7 +218,13 @@ class ImmutableGenerator {
                         .map(a -> a.name + " == 0")
                         .collect(Collectors.joining(" && "));
 
-                mandatoryOf.addStatement("return $L ? INSTANCE : new $T(" + params + ")", bitSets, type.immutableType);
+                if (flyweightMask != null) {
+                    String bitSet = type.generated.get(0).name;
+                    mandatoryOf.addStatement("return ($L & ~($L)) == 0 ? INSTANCES[$L] : new $T(" + params + ")",
+                            bitSet, flyweightMask, bitSet, type.immutableType);
+                } else {
+                    mandatoryOf.addStatement("return $L ? INSTANCE : new $T(" + params + ")", bitSets, type.immutableType);
+                }
             } else {
                 mandatoryOf.addStatement("return new $T(" + params + ")", type.immutableType);
             }
@@ -183,6 +239,10 @@ class ImmutableGenerator {
                 .addParameter(type.builderType, "builder");
 
         for (ValueAttribute a : type.generated) {
+            if (packed.contains(a)) {
+                continue;
+            }
+
             StringBuilder format = new StringBuilder("$1L = ");
             TypeRef listElement = unwrap(a.type, LIST);
             Counter ctr;
@@ -190,7 +250,12 @@ class ImmutableGenerator {
                     (listElement != a.type || a.type.safeUnbox() instanceof PrimitiveTypeRef &&
                     (ctr = type.bitSets.get(a.flagsName).bitUsage.get(a.flagPos)) != null && ctr.value == 1);
             if (isOptOrPrimitiveUnwr) {
-                format.append("builder.$1L != null ? ");
+                if (listElement != a.type) {
+                    // list may be retained by builder after reset()
+                    format.append("builder.$1L != null && (builder.$2L & $3L) != 0 ? ");
+                } else {
+                    format.append("builder.$1L != null ? ");
+                }
             }
 
             if (listElement != a.type) {
@@ -206,6 +271,7 @@ class ImmutableGenerator {
             builderConstructor.addStatement(format, a.name, a.flagsName, a.flagMask, LIST);
         }
 
+        generatePacking(packed, builderConstructor, "builder.");
         builderConstructor.complete();
 
         // constructor for with* methods
@@ -226,9 +292,12 @@ class ImmutableGenerator {
 
             for (ValueAttribute a : type.generated) {
                 allConstructor.addParameter(unboxOptional(a, type), a.name);
-                allConstructorBody.addStatement("this.$1L = $1L", a.name);
+                if (!packed.contains(a)) {
+                    allConstructorBody.addStatement("this.$1L = $1L", a.name);
+                }
             }
 
+            generatePacking(packed, allConstructorBody, "");
             allConstructor.addCode(allConstructorBody.complete());
             allConstructor.complete();
         }
@@ -280,8 +349,19 @@ class ImmutableGenerator {
             }
 
             attr.addAnnotation(Override.class);
+            // packed values are stored as Object
+            if (packed.contains(a) && a.type instanceof ParameterizedTypeRef) {
+                attr.addAnnotation(renderer.createAnnotation(SuppressWarnings.class).addAttribute("unchecked"));
+            }
             attr.addModifiers(Modifier.PUBLIC);
 
+            if (packed.contains(a)) {
+                attr.addStatement("return ($L & $L) != 0 ? ($T) $L[$L] : null", a.flagsName, a.flagMask,
+                        a.type, optionalsFieldName, packedIndex(packed, a, ""));
+                attr.complete();
+                continue;
+            }
+
             TypeRef listElement = unwrap(a.type, LIST);
 
             boolean opt = a.flags.contains(ValueAttribute.Flag.OPTIONAL);
@@ -381,7 +461,7 @@ class ImmutableGenerator {
             ValueAttribute a = type.generated.get(i);
 
             TypeRef unwrapped = unboxOptional(a, type);
-            String fieldName = qualify(a.name, hashCodeVariableName);
+            String fieldName = packed.contains(a) ? a.name + "()" : qualify(a.name, hashCodeVariableName);
 
             // region hashCode
             if (unwrapped == PrimitiveTypeRef.DOUBLE) {
@@ -451,7 +531,7 @@ class ImmutableGenerator {
                 }
                 toString.addCode(format, a.name, ByteBufUtil.class, Collectors.class);
             } else {
-                toString.addCode(a.name);
+                toString.addCode(packed.contains(a) ? a.name + "()" : a.name);
             }
 
             toString.addCode(" +").ln();
@@ -565,19 +645,44 @@ class ImmutableGenerator {
                     .map(a -> a.name + " == 0")
                     .collect(Collectors.joining(" && "));
 
-            build.addStatement("return $L ? INSTANCE : new $T(this)", bitSets, type.immutableType);
+            if (flyweightMask != null) {
+                String bitSet = type.generated.get(0).name;
+                build.addStatement("return ($L & ~($L)) == 0 ? INSTANCES[$L] : new $T(this)",
+                        bitSet, flyweightMask, bitSet, type.immutableType);
+            } else {
+                build.addStatement("return $L ? INSTANCE : new $T(this)", bitSets, type.immutableType);
+            }
         } else {
             build.addStatement("return new $T(this)", type.immutableType);
         }
 
         build.complete();
+
+        // allows to reuse builder and storage of its lists
+        var reset = builder.addMethod(type.builderType, "reset", Modifier.PUBLIC);
+        if (type.initBitsCount > 0) {
+            reset.addStatement("initBits = 0x$L", Integer.toHexString(~(0xffffffff << type.initBitsCount)));
+        }
+
+        for (ValueAttribute a : type.generated) {
+            if (unwrap(a.type, LIST) != a.type) {
+                reset.addStatement("if ($1L != null) $1L.clear()", a.name);
+            } else if (a.type instanceof PrimitiveTypeRef) {
+                reset.addStatement("$L = $L", a.name, defaultValueFor(a.type));
+            } else {
+                reset.addStatement("$L = null", a.name);
+            }
+        }
+
+        reset.addStatement("return this");
+        reset.complete();
         pending.complete();
 
         builder.complete();
 
         // endregion
 
-        fileService.writeTo(renderer);
+        return renderer;
     }
 
     private void generateFrom(ValueType type, ClassRenderer<?> builder, CompletionDeferrer pending) {
@@ -645,7 +750,13 @@ class ImmutableGenerator {
                 }
             }
 
-            renderer.addCode("$L ? INSTANCE : ", j);
+            String flyweightMask = flyweightMask(type);
+            if (flyweightMask != null) {
+                // the only attribute is bit set, which is changed
+                renderer.addCode("($L & ~($L)) == 0 ? INSTANCES[$L] : ", newValueVar, flyweightMask, newValueVar);
+            } else {
+                renderer.addCode("$L ? INSTANCE : ", j);
+            }
         }
 
         renderer.addCode("new $T(", type.immutableType);
@@ -653,6 +764,7 @@ class ImmutableGenerator {
             renderer.addCode("null, ");
         }
 
+        List<ValueAttribute> packed = packedAttributes(type);
         for (int i = 0, n = type.generated.size(); i < n; i++) {
             ValueAttribute b = type.generated.get(i);
 
@@ -661,6 +773,8 @@ class ImmutableGenerator {
                 s = newValueVar;
             } else if (b.name.equals(a.flagsName)) {
                 s = newValue.apply(b.name);
+            } else if (packed.contains(b)) {
+                s = b.name + "()";
             } else {
                 s = qualify(b.name, paramName);
             }
@@ -693,7 +807,7 @@ class ImmutableGenerator {
 
         String name = with.apply(a.name);
         String paramName = listElement != a.type ? "values" : "value";
-        String localName = qualify(a.name, paramName);
+        String localName = packedAttributes(type).contains(a) ? a.name + "()" : qualify(a.name, paramName);
         String newValueVar = newValue.apply(a.name);
         boolean transformed = false;
 
@@ -976,8 +1090,10 @@ class ImmutableGenerator {
             add.addStatement("$T.requireNonNull(value)", OBJECTS);
         }
 
+        // list may be retained after reset(), so presence is marked on every call
         add.beginControlFlow("if ($L == null) {", localNameSingular);
         add.addStatement("$L = new $T<>()", localNameSingular, ArrayList.class);
+        add.endControlFlow();
 
         if (opt) {
             add.addStatement("$L |= $L", a.flagsName, a.flagMask);
@@ -985,8 +1101,6 @@ class ImmutableGenerator {
             add.addStatement("$L &= ~$L", type.initBitsName, a.names().initBit);
         }
 
-        add.endControlFlow();
-
         var addv = pending.add(builder.addMethod(type.builderType, a.names().addv)
                 .addModifiers(Modifier.PUBLIC)
                 .addParameter(listElement, "values", true));
@@ -1005,27 +1119,27 @@ class ImmutableGenerator {
         }
         addv.beginControlFlow("if ($L == null) {", localName);
         addv.addStatement("$L = copy", localName);
+        addv.nextControlFlow("} else {");
+        addv.addStatement("$L.addAll(copy)", localName);
+        addv.endControlFlow();
         if (opt) {
             addv.addStatement("$L |= $L", a.flagsName, a.flagMask);
         } else {
             addv.addStatement("$L &= ~$L", type.initBitsName, a.names().initBit);
         }
-        addv.nextControlFlow("} else {");
-        addv.addStatement("$L.addAll(copy)", localName);
-        addv.endControlFlow();
 
         addAll.addStatement("$1T copy = $2T.stream(values.spliterator(), false)$B.map(" + copyTransform + ")$B.collect($5T.toList())",
                 a.type, StreamSupport.class, UTILITY, OBJECTS, Collectors.class);
         addAll.beginControlFlow("if ($L == null) {", localName);
         addAll.addStatement("$L = copy", localName);
+        addAll.nextControlFlow("} else {");
+        addAll.addStatement("$L.addAll(copy)", localName);
+        addAll.endControlFlow();
         if (opt) {
             addAll.addStatement("$L |= $L", a.flagsName, a.flagMask);
         } else {
             addAll.addStatement("$L &= ~$L", type.initBitsName, a.names().initBit);
         }
-        addAll.nextControlFlow("} else {");
-        addAll.addStatement("$L.addAll(copy)", localName);
-        addAll.endControlFlow();
 
         if (listElement == BYTE_BUF) {
             add.addStatement("$L.add($L.copyAsUnpooled(value))", localNameSingular, UTILITY);
@@ -1124,6 +1238,102 @@ class ImmutableGenerator {
         return a.type;
     }
 
+    // Constructors with only one bit set and few bit flags, e.g. `flags:# selective:flags.2?true`,
+    // have small count of possible values, so all of them can be precomputed.
+    // Returns mask of all bit flags for such types, or null for other types.
+    @Nullable
+    private static String flyweightMask(ValueType type) {
+        if (!type.flags.contains(Flag.SINGLETON) || !type.typeVars.isEmpty() || type.generated.size() != 1 ||
+                !type.generated.get(0).flags.contains(ValueAttribute.Flag.BIT_SET)) {
+            return null;
+        }
+
+        StringJoiner mask = new StringJoiner(" | ");
+        for (ValueAttribute a : type.attributes) {
+            if (a.flags.contains(ValueAttribute.Flag.BIT_FLAG)) {
+                if (a.flagPos >= FLYWEIGHT_MAX_BITS) {
+                    return null;
+                }
+                mask.add(a.flagMask);
+            }
+        }
+        return mask.length() != 0 ? mask.toString() : null;
+    }
+
+    // In compact layout optional references with own flag bit are stored in the one array
+    // which contains only present values, ordered as attributes. Index of value is the count of
+    // present values of preceding attributes.
+    private List<ValueAttribute> packedAttributes(ValueType type) {
+        if (!compactLayout || !type.typeVars.isEmpty()) {
+            return List.of();
+        }
+
+        var packed = new ArrayList<ValueAttribute>();
+        for (ValueAttribute a : type.generated) {
+            if (a.name.equals(optionalsFieldName)) {
+                return List.of();
+            }
+
+            if (a.flags.contains(ValueAttribute.Flag.OPTIONAL) &&
+                    !(unboxOptional(a, type) instanceof PrimitiveTypeRef) &&
+                    unwrap(a.type, LIST) != BYTE_BUF && a.type != BYTE_BUF &&
+                    type.bitSets.get(a.flagsName).bitUsage.get(a.flagPos).value == 1) {
+                packed.add(a);
+            }
+        }
+        // single value takes more memory in the array than in the field
+        return packed.size() > 1 ? packed : List.of();
+    }
+
+    private String packedIndex(List<ValueAttribute> packed, ValueAttribute a, String qualifier) {
+        Map<String, StringJoiner> masks = new LinkedHashMap<>();
+        for (ValueAttribute b : packed) {
+            if (a == b) {
+                break;
+            }
+            masks.computeIfAbsent(b.flagsName, k -> new StringJoiner(" | ")).add(b.flagMask);
+        }
+        return bitCount(masks, qualifier);
+    }
+
+    private String bitCount(Map<String, StringJoiner> masks, String qualifier) {
+        if (masks.isEmpty()) {
+            return "0";
+        }
+
+        StringJoiner sum = new StringJoiner(" + ");
+        masks.forEach((flagsName, mask) -> sum.add("Integer.bitCount(" + qualifier + flagsName + " & (" + mask + "))"));
+        return sum.toString();
+    }
+
+    private void generatePacking(List<ValueAttribute> packed,
+                                 CodeRenderer<?> renderer, String qualifier) {
+        if (packed.isEmpty()) {
+            return;
+        }
+
+        Map<String, StringJoiner> masks = new LinkedHashMap<>();
+        for (ValueAttribute a : packed) {
+            masks.computeIfAbsent(a.flagsName, k -> new StringJoiner(" | ")).add(a.flagMask);
+        }
+
+        renderer.addStatement("$T[] $L = $T.newOptionals($L)", ClassRef.OBJECT, optionalsFieldName,
+                UTILITY, bitCount(masks, qualifier));
+        for (ValueAttribute a : packed) {
+            String format = "if (($1L$2L & $3L) != 0) $4L[$5L] = ";
+            if (!qualifier.isEmpty() && unwrap(a.type, LIST) != a.type) {
+                // list may be retained by builder after reset()
+                format += "$1L$6L != null ? $7T.copyOf($1L$6L) : null";
+            } else {
+                format += "$1L$6L";
+            }
+
+            renderer.addStatement(format, qualifier, a.flagsName, a.flagMask, optionalsFieldName,
+                    packedIndex(packed, a, qualifier), a.name, LIST);
+        }
+        renderer.addStatement("this.$1L = $1L", optionalsFieldName);
+    }
+
     private String defaultValueFor(TypeRef type) {
         if (type == PrimitiveTypeRef.BOOLEAN)
             return "false";
@@ -16,6 +16,8 @@
 package telegram4j.tl.generator;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.netty.buffer.ByteBufAllocator;
@@ -28,6 +30,7 @@ import telegram4j.tl.generator.TlProcessing.Parameter;
 import telegram4j.tl.generator.TlProcessing.Type;
 import telegram4j.tl.generator.TlProcessing.TypeNameBase;
 import telegram4j.tl.generator.renderer.*;
+import telegram4j.tl.parser.BinaryScheme;
 import telegram4j.tl.parser.TlTrees;
 
 import javax.annotation.processing.*;
@@ -37,6 +40,7 @@ import javax.lang.model.element.PackageElement;
 import javax.lang.model.element.TypeElement;
 import javax.tools.Diagnostic;
 import javax.tools.StandardLocation;
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Writer;
@@ -62,6 +66,7 @@ public class SchemaGenerator extends AbstractProcessor {
     private FileService fileService;
 
     private PackageElement currentElement;
+    private boolean lazyDispatch;
     private List<Tuple2<TlTrees.Scheme, Configuration>> schemas;
     private Map<TlTrees.Scheme, Map<String, List<Type>>> typeTree;
 
@@ -77,8 +82,17 @@ public class SchemaGenerator extends AbstractProcessor {
     private final Set<String> computedSerializers = new HashSet<>();
     private final Set<String> computedSizeOfs = new HashSet<>();
     private final Set<String> computedDeserializers = new HashSet<>();
+    private final Set<String> computedSkippers = new HashSet<>();
+    private final Set<String> computedProjectors = new HashSet<>();
+    private final Set<String> computedWalkers = new HashSet<>();
+    private final Set<String> computedJsonReaders = new HashSet<>();
+    // cases of TlInfo.typeOf() and TlDeserializer.deserialize0() by packages for lazy dispatch
+    private final Map<String, List<DispatchCase>> typeOfCases = new LinkedHashMap<>();
+    private final Map<String, List<DispatchCase>> deserializeCases = new LinkedHashMap<>();
 
     private final List<String> emptyObjectsIds = new ArrayList<>(200);
+    private final List<String> emptySkipIds = new ArrayList<>(200);
+    private final Map<Integer, Set<String>> skipGroups = new HashMap<>();
 
     private final TopLevelRenderer tlInfo = ClassRenderer.create(ClassRef.of(BASE_PACKAGE, "TlInfo"), ClassRenderer.Kind.CLASS)
             .addModifiers(Modifier.PUBLIC, Modifier.FINAL);
@@ -86,8 +100,7 @@ public class SchemaGenerator extends AbstractProcessor {
     private final MethodRenderer<TopLevelRenderer> tlTypeOf = tlInfo.addMethod(
             ParameterizedTypeRef.of(Class.class, WildcardTypeRef.subtypeOf(TL_OBJECT)), "typeOf")
             .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
-            .addParameter(int.class, "id")
-            .beginControlFlow("return switch (id) {");
+            .addParameter(int.class, "id");
 
     private final TopLevelRenderer serializer = ClassRenderer.create(ClassRef.of(BASE_PACKAGE, "TlSerializer"), ClassRenderer.Kind.CLASS)
             .addStaticImport(BASE_PACKAGE + ".TlSerialUtil.*")
@@ -100,8 +113,8 @@ public class SchemaGenerator extends AbstractProcessor {
             .addParameter(TL_OBJECT, "payload")
             .beginControlFlow("return switch (payload.identifier()) {");
 
-    private final MethodRenderer<TopLevelRenderer> serializeMethod = serializer.addMethod(BYTE_BUF, "serialize")
-            .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+    private final MethodRenderer<TopLevelRenderer> serializeMethod = serializer.addMethod(BYTE_BUF, "serialize0")
+            .addModifiers(Modifier.STATIC)
             .addParameter(BYTE_BUF, "buf")
             .addParameter(TL_OBJECT, "payload")
             .beginControlFlow("switch (payload.identifier()) {");
@@ -112,8 +125,8 @@ public class SchemaGenerator extends AbstractProcessor {
             .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
             .addConstructor(Modifier.PRIVATE).complete();
 
-    private final MethodRenderer<TopLevelRenderer> deserializeMethod = deserializer.addMethod(genericTypeRef, "deserialize")
-            .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+    private final MethodRenderer<TopLevelRenderer> deserializeMethod = deserializer.addMethod(genericTypeRef, "deserialize0")
+            .addModifiers(Modifier.STATIC)
             .addTypeVariables(genericTypeRef)
             .addParameter(BYTE_BUF, "payload")
             .addStatement("int identifier = payload.readIntLE()")
@@ -123,12 +136,75 @@ public class SchemaGenerator extends AbstractProcessor {
             .addStatement("case BOOL_FALSE_ID -> Boolean.FALSE")
             .addStatement("case VECTOR_ID -> deserializeUnknownVector(payload)");
 
+    private final TopLevelRenderer skipper = ClassRenderer.create(ClassRef.of(BASE_PACKAGE, "TlSkipper"), ClassRenderer.Kind.CLASS)
+            .addStaticImport(BASE_PACKAGE + ".TlSerialUtil.*")
+            .addStaticImport(BASE_PACKAGE + ".TlInfo.*")
+            .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+            .addConstructor(Modifier.PRIVATE).complete();
+
+    private final MethodRenderer<TopLevelRenderer> skipMethod = skipper.addMethod(PrimitiveTypeRef.VOID, "skip")
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+            .addParameter(BYTE_BUF, "payload")
+            .addStatement("int identifier = payload.readIntLE()")
+            .beginControlFlow("switch (identifier) {")
+            .addStatement("case VECTOR_ID -> skipUnknownVector(payload)")
+            .addCode("case BOOL_TRUE_ID, BOOL_FALSE_ID -> {}").ln();
+
+    private final TopLevelRenderer projector = ClassRenderer.create(ClassRef.of(BASE_PACKAGE, "TlProjector"), ClassRenderer.Kind.CLASS)
+            .addStaticImport(BASE_PACKAGE + ".TlSerialUtil.*")
+            .addStaticImport(BASE_PACKAGE + ".TlSkipper.skip")
+            .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+            .addConstructor(Modifier.PRIVATE).complete();
+
+    private final MethodRenderer<TopLevelRenderer> projectMethod = projector.addMethod(int.class, "project")
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+            .addParameter(BYTE_BUF, "payload")
+            .addParameter(long.class, "fields")
+            .addParameter(TL_FIELD_SINK, "sink")
+            .addStatement("int identifier = payload.readIntLE()")
+            .beginControlFlow("switch (identifier) {");
+
+    private final TopLevelRenderer walker = ClassRenderer.create(ClassRef.of(BASE_PACKAGE, "TlWalker"), ClassRenderer.Kind.CLASS)
+            .addStaticImport(BASE_PACKAGE + ".TlSerialUtil.*")
+            .addStaticImport(BASE_PACKAGE + ".TlInfo.*")
+            .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+            .addConstructor(Modifier.PRIVATE).complete();
+
+    private final MethodRenderer<TopLevelRenderer> walkMethod = walker.addMethod(PrimitiveTypeRef.VOID, "walk")
+            .addModifiers(Modifier.STATIC)
+            .addParameter(BYTE_BUF, "payload")
+            .addParameter(STRING, "name")
+            .addParameter(TL_VISITOR, "visitor")
+            .addStatement("int identifier = payload.readIntLE()")
+            .beginControlFlow("switch (identifier) {")
+            .addStatement("case VECTOR_ID -> walkUnknownVector(payload, name, visitor)")
+            .addStatement("case BOOL_TRUE_ID, BOOL_FALSE_ID -> visitor.booleanField(name, identifier == BOOL_TRUE_ID)");
+
+    private final TopLevelRenderer jsonReader = ClassRenderer.create(ClassRef.of(BASE_PACKAGE, "TlJsonReader"), ClassRenderer.Kind.CLASS)
+            .addStaticImport(BASE_PACKAGE + ".TlJsonFields.*")
+            .addStaticImport(BASE_PACKAGE + ".TlInfo.*")
+            .addModifiers(Modifier.FINAL)
+            .addConstructor(Modifier.PRIVATE).complete();
+
+    private final MethodRenderer<TopLevelRenderer> jsonReadMethod = jsonReader.addMethod(PrimitiveTypeRef.VOID, "read")
+            .addModifiers(Modifier.STATIC)
+            .addParameter(JsonParser.class, "parser")
+            .addParameter(BYTE_BUF, "buf")
+            .addExceptions(IOException.class)
+            .beginControlFlow("if (parser.currentToken() != $T.START_OBJECT) {", JsonToken.class)
+            .addStatement("buf.writeIntLE(readValueIdentifier(parser))")
+            .addStatement("return")
+            .endControlFlow()
+            .ln()
+            .addStatement("int identifier = readIdentifier(parser)")
+            .addStatement("buf.writeIntLE(identifier)")
+            .beginControlFlow("switch (identifier) {");
+
     @Override
     public synchronized void init(ProcessingEnvironment processingEnv) {
         super.init(processingEnv);
 
         fileService = new FileService(processingEnv.getFiler());
-        immutableGenerator = new ImmutableGenerator(fileService);
     }
 
     @Override
@@ -147,6 +223,11 @@ public class SchemaGenerator extends AbstractProcessor {
                     .getElementsAnnotatedWith(GenerateSchema.class)
                     .iterator().next();
 
+            GenerateSchema settings = currentElement.getAnnotation(GenerateSchema.class);
+            immutableGenerator = new ImmutableGenerator(fileService, settings.compactLayout());
+            lazyDispatch = settings.lazyDispatch();
+            tlTypeOf.beginControlFlow(lazyDispatch ? "return switch (dispatchGroup(id)) {" : "return switch (id) {");
+
             schemas = new ArrayList<>(configs.length);
             typeTree = new HashMap<>(configs.length);
 
@@ -154,19 +235,23 @@ public class SchemaGenerator extends AbstractProcessor {
 
             for (Configuration cfg : configs) {
                 try {
-                    InputStream is = processingEnv.getFiler().getResource(
-                            StandardLocation.ANNOTATION_PROCESSOR_PATH, "",
-                            cfg.name + ".json").openInputStream();
-
-                    var schema = mapper.readValue(is, TlTrees.Scheme.class);
+                    var schema = readScheme(mapper, cfg.name);
 
                     if (cfg.name.equals("api")) {
+                        if (settings.include().length != 0) {
+                            schema = SchemaSubset.reduce(schema, Arrays.asList(settings.include()));
+                        }
                         apiScheme = schema;
                     }
 
                     typeTree.put(schema, collectTypeTree(cfg, schema));
 
                     schemas.add(Tuples.of(schema, cfg));
+                } catch (IllegalArgumentException e) {
+                    processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                            "[TL parser] " + e.getMessage(), currentElement);
+                    iteration = 5; // end
+                    return true;
                 } catch (Throwable t) {
                     throw Exceptions.propagate(t);
                 }
@@ -217,6 +302,8 @@ public class SchemaGenerator extends AbstractProcessor {
             }
         }
 
+        // all sources of round must be created before its end
+        fileService.flush();
         return true;
     }
 
@@ -267,26 +354,182 @@ public class SchemaGenerator extends AbstractProcessor {
 
         sizeOfMethod.complete();
 
+        var fixedSizes = new StringJoiner(",$W ");
+        for (String id : emptyObjectsIds) {
+            fixedSizes.add("0x" + id + ", 4");
+        }
+        for (var e : sizeOfGroups.entrySet()) {
+            for (String id : e.getValue()) {
+                fixedSizes.add("0x" + id + ", " + e.getKey());
+            }
+        }
+
+        serializer.addField(TL_SIZE_TABLE, "fixedSizes", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer("new $T(new int[]{" + fixedSizes + "})", TL_SIZE_TABLE)
+                .complete();
+
+        serializer.addMethod(int.class, "fixedSizeOf")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addParameter(int.class, "identifier")
+                .addStatement("return fixedSizes.get(identifier)")
+                .complete();
+
         serializer.addMethod(BYTE_BUF, "serialize")
                 .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
                 .addParameter(ByteBufAllocator.class, "alloc")
                 .addParameter(TL_OBJECT, "payload")
                 .addStatement("int size = sizeOf(payload)")
+                .addStatement("if ($T.ENABLED) $T.INSTANCE.onAllocate(size)", INSTRUMENTATION, INSTRUMENTATION)
                 .addStatement("$T buf = alloc.buffer(size)", BYTE_BUF)
                 .addStatement("return serialize(buf, payload)")
                 .complete();
 
+        serializer.addMethod(BYTE_BUF, "serialize")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addParameter(BYTE_BUF, "buf")
+                .addParameter(TL_OBJECT, "payload")
+                .addStatement("return $T.ENABLED ? $T.serialize(buf, payload) : serialize0(buf, payload)",
+                        INSTRUMENTATION, INSTRUMENTATION)
+                .complete();
+
         serializeMethod.complete();
 
         fileService.writeTo(serializer);
 
+        if (lazyDispatch) {
+            generateDispatch();
+        }
+
         deserializeMethod.addStatement("default -> throw new IllegalArgumentException($S + Integer.toHexString(identifier))",
                 "Incorrect TlObject identifier: 0x");
         deserializeMethod.endControlFlow("};");
+        if (lazyDispatch) {
+            deserializeMethod.endControlFlow("};");
+        }
         deserializeMethod.complete();
 
+        deserializer.addMethod(genericTypeRef, "deserialize")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addTypeVariables(genericTypeRef)
+                .addParameter(BYTE_BUF, "payload")
+                .addStatement("return $T.ENABLED ? $T.deserialize(payload) : deserialize0(payload)",
+                        INSTRUMENTATION, INSTRUMENTATION)
+                .complete();
+
         fileService.writeTo(deserializer);
 
+        for (int i = 0; i < emptySkipIds.size(); i++) {
+            String id = emptySkipIds.get(i);
+
+            if (i == 0) {
+                skipMethod.addCode("case ");
+            }
+            skipMethod.addCode("0x" + id);
+            if (i + 1 < emptySkipIds.size()) {
+                skipMethod.addCodeFormatted(",$W ");
+            } else {
+                skipMethod.addCode(" -> {}").ln();
+            }
+        }
+
+        for (var e : skipGroups.entrySet()) {
+            int i = 0;
+            for (var it = e.getValue().iterator(); it.hasNext(); ) {
+                String s = it.next();
+                if (i == 0) {
+                    skipMethod.addCode("case ");
+                }
+                skipMethod.addCode("0x" + s);
+                if (!it.hasNext()) {
+                    skipMethod.addCode(" -> payload.skipBytes($L);", e.getKey()).ln();
+                } else {
+                    skipMethod.addCodeFormatted(",$W ");
+                }
+                i++;
+            }
+        }
+
+        skipMethod.addStatement("default -> throw new IllegalArgumentException($S + Integer.toHexString(identifier))",
+                "Incorrect TlObject identifier: 0x");
+        skipMethod.endControlFlow();
+        skipMethod.complete();
+
+        fileService.writeTo(skipper);
+
+        for (int i = 0; i < emptySkipIds.size(); i++) {
+            String id = emptySkipIds.get(i);
+
+            if (i == 0) {
+                projectMethod.addCode("case ");
+            }
+            projectMethod.addCode("0x" + id);
+            if (i + 1 < emptySkipIds.size()) {
+                projectMethod.addCodeFormatted(",$W ");
+            } else {
+                projectMethod.addCode(" -> {}").ln();
+            }
+        }
+
+        projectMethod.addStatement("default -> throw new IllegalArgumentException($S + Integer.toHexString(identifier))",
+                "Incorrect TlObject identifier: 0x");
+        projectMethod.endControlFlow();
+        projectMethod.addStatement("return identifier");
+        projectMethod.complete();
+
+        fileService.writeTo(projector);
+
+        for (int i = 0; i < emptySkipIds.size(); i++) {
+            String id = emptySkipIds.get(i);
+
+            if (i == 0) {
+                walkMethod.addCode("case ");
+            }
+            walkMethod.addCode("0x" + id);
+            if (i + 1 < emptySkipIds.size()) {
+                walkMethod.addCodeFormatted(",$W ");
+            } else {
+                walkMethod.beginControlFlow(" -> {");
+                walkMethod.addStatement("visitor.beginObject(name, identifier)");
+                walkMethod.addStatement("visitor.endObject()");
+                walkMethod.endControlFlow("}");
+            }
+        }
+
+        walkMethod.addStatement("default -> throw new IllegalArgumentException($S + Integer.toHexString(identifier))",
+                "Incorrect TlObject identifier: 0x");
+        walkMethod.endControlFlow();
+        walkMethod.complete();
+
+        walker.addMethod(PrimitiveTypeRef.VOID, "walk")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addParameter(BYTE_BUF, "payload")
+                .addParameter(TL_VISITOR, "visitor")
+                .addStatement("walk(payload, null, visitor)")
+                .complete();
+
+        fileService.writeTo(walker);
+
+        for (int i = 0; i < emptySkipIds.size(); i++) {
+            String id = emptySkipIds.get(i);
+
+            if (i == 0) {
+                jsonReadMethod.addCode("case ");
+            }
+            jsonReadMethod.addCode("0x" + id);
+            if (i + 1 < emptySkipIds.size()) {
+                jsonReadMethod.addCodeFormatted(",$W ");
+            } else {
+                jsonReadMethod.addCode(" -> skipFields(parser);").ln();
+            }
+        }
+
+        jsonReadMethod.addStatement("default -> throw new IllegalArgumentException($S + Integer.toHexString(identifier))",
+                "Incorrect TlObject identifier: 0x");
+        jsonReadMethod.endControlFlow();
+        jsonReadMethod.complete();
+
+        fileService.writeTo(jsonReader);
+
         tlInfo.addConstructor(Modifier.PRIVATE).complete();
 
         tlTypeOf.addStatement("default -> throw new IllegalArgumentException($S + Integer.toHexString(id))",
@@ -424,7 +667,7 @@ public class SchemaGenerator extends AbstractProcessor {
                 for (int i = 0, n = method.parameters.size(); i < n; i++) {
                     Parameter param = method.parameters.get(i);
 
-                    generateAttribute(param, renderer);
+                    generateAttribute(param, i, renderer);
 
                     if (param.type.isBitFlag()) {
                         continue;
@@ -463,7 +706,7 @@ public class SchemaGenerator extends AbstractProcessor {
 
             fileService.writeTo(renderer);
 
-            tlTypeOf.addStatement("case 0x$L -> $T.class", method.id, renderer.name);
+            addTypeOfCase(renderer.name, List.of(method.id));
 
             if (isEmptyMethod) {
                 continue;
@@ -552,6 +795,15 @@ public class SchemaGenerator extends AbstractProcessor {
             }
             idConst.initializer("0x" + constructor.id).complete();
 
+            int fixedSize = fixedSizeOf(constructor);
+            if (fixedSize != -1) {
+                var fixedSizeConst = renderer.addField(int.class, "FIXED_SIZE");
+                if (isEmptyObject) {
+                    fixedSizeConst.addModifiers(Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL);
+                }
+                fixedSizeConst.initializer(Integer.toString(fixedSize)).complete();
+            }
+
             boolean singleton = true;
             // if true then will be generated simplified deserialization
             // which directly pass bit sets into the builder
@@ -596,9 +848,10 @@ public class SchemaGenerator extends AbstractProcessor {
             identifierMethod.complete();
 
             if (isEmptyObject) {
-                deserializeMethod.addStatement("case 0x$L -> $T.instance()", constructor.id, renderer.name);
+                addDeserializeCase(renderer.name.packageName, List.of(constructor.id), "$T.instance()", renderer.name);
 
                 emptyObjectsIds.add(constructor.id);
+                emptySkipIds.add(constructor.id);
 
                 renderer.addMethod(int.class, "hashCode")
                         .addAnnotation(Override.class)
@@ -621,8 +874,7 @@ public class SchemaGenerator extends AbstractProcessor {
                 serializeMethod.addStatement("case 0x$L -> $L(buf, ($T) payload)",
                         constructor.id, serializeMethodName, renderer.name);
 
-                deserializeMethod.addStatement("case 0x$L -> $L(payload)",
-                        constructor.id, deserializeMethodName);
+                addDeserializeCase(renderer.name.packageName, List.of(constructor.id), "$L(payload)", deserializeMethodName);
 
                 var typeDeserializer = deserializer.addMethod(immutableType, deserializeMethodName,
                                 Modifier.PRIVATE, Modifier.STATIC)
@@ -657,7 +909,7 @@ public class SchemaGenerator extends AbstractProcessor {
                 for (int i = 0, n = constructor.parameters.size(); i < n; i++) {
                     Parameter param = constructor.parameters.get(i);
 
-                    generateAttribute(param, renderer);
+                    generateAttribute(param, i, renderer);
 
                     if (param.type.isBitFlag()) {
                         continue;
@@ -692,6 +944,11 @@ public class SchemaGenerator extends AbstractProcessor {
                 typeSerializer.complete();
                 typeDeserializer.addStatement(".build()").decIndent().complete();
 
+                generateSkipMethod(constructor, name, renderer.name);
+                generateProjectMethod(constructor, name, renderer);
+                generateWalkMethod(constructor, name, renderer.name);
+                generateJsonReadMethod(constructor, name, renderer.name);
+
                 if (sizes.length() != 0) {
                     sizeOfBlock.addStatementFormatted("return " + size + " + " + sizes);
 
@@ -713,7 +970,7 @@ public class SchemaGenerator extends AbstractProcessor {
 
             fileService.writeTo(renderer);
 
-            tlTypeOf.addStatement("case 0x$L -> $T.class", constructor.id, renderer.name);
+            addTypeOfCase(renderer.name, List.of(constructor.id));
 
             if (isEmptyObject)
                 continue;
@@ -722,6 +979,315 @@ public class SchemaGenerator extends AbstractProcessor {
         }
     }
 
+    private void generateSkipMethod(Type constructor, String name, ClassRef typeName) {
+        Set<String> usedBitSets = constructor.parameters.stream()
+                .filter(p -> p.type.isFlag() && !p.type.isBitFlag())
+                .map(p -> p.type.flagsName())
+                .collect(Collectors.toSet());
+
+        var skipBlock = skipper.createCode().incIndent(2);
+
+        // adjacent fixed size fields are skipped at once
+        int pending = 0;
+        boolean fixedSize = true;
+        for (Parameter param : constructor.parameters) {
+            if (param.type.isBitFlag()) {
+                continue;
+            }
+
+            if (param.type.isBitSet() && !usedBitSets.contains(param.formattedName())) {
+                pending += 4;
+                continue;
+            }
+
+            int s = sizeOfPrimitive(param.type);
+            // booleans are validated
+            if (s != -1 && !param.type.isBitSet() && !param.type.rawType.equals("Bool")) {
+                pending += s;
+                continue;
+            }
+
+            fixedSize = false;
+            if (pending != 0) {
+                skipBlock.addStatement("payload.skipBytes($L)", pending);
+                pending = 0;
+            }
+
+            if (param.type.isBitSet()) {
+                skipBlock.addStatement("int $L = payload.readIntLE()", param.formattedName());
+            } else if (param.type.isFlag()) {
+                String mask = bitMask.apply(param.formattedName(), Naming.As.SCREMALIZED);
+                skipBlock.addStatement("if (($L & $T.$L) != 0) " + skipMethod0(param.type.innerType()),
+                        param.type.flagsName(), typeName, mask);
+            } else {
+                skipBlock.addStatement(skipMethod0(param.type));
+            }
+        }
+
+        if (fixedSize) {
+            skipGroups.computeIfAbsent(pending, i -> new HashSet<>()).add(constructor.id);
+            return;
+        }
+
+        if (pending != 0) {
+            skipBlock.addStatement("payload.skipBytes($L)", pending);
+        }
+
+        String skipMethodName = uniqueMethodName("skip", name, () ->
+                camelize(parentPackageName(constructor.name.rawType)), computedSkippers);
+
+        skipMethod.addStatement("case 0x$L -> $L(payload)", constructor.id, skipMethodName);
+
+        skipper.addMethod(PrimitiveTypeRef.VOID, skipMethodName, Modifier.PRIVATE, Modifier.STATIC)
+                .addParameter(BYTE_BUF, "payload")
+                .addCode(skipBlock.complete())
+                .complete();
+    }
+
+    private void generateProjectMethod(Type constructor, String name, TopLevelRenderer renderer) {
+        if (constructor.parameters.size() > Long.SIZE) {
+            throw new IllegalStateException("Too many parameters to project in constructor: " + constructor.name.rawType);
+        }
+
+        Set<String> usedBitSets = constructor.parameters.stream()
+                .filter(p -> p.type.isFlag())
+                .map(p -> p.type.flagsName())
+                .collect(Collectors.toSet());
+
+        var projectBlock = projector.createCode().incIndent(2);
+        for (int i = 0, n = constructor.parameters.size(); i < n; i++) {
+            Parameter param = constructor.parameters.get(i);
+
+            renderer.addField(int.class, field.apply(param.formattedName(), Naming.As.SCREMALIZED))
+                    .initializer(Integer.toString(i))
+                    .complete();
+
+            String selected = "(fields & 1L << " + i + ") != 0";
+            if (param.type.isBitFlag()) {
+                String mask = bitMask.apply(param.formattedName(), Naming.As.SCREMALIZED);
+                projectBlock.addStatement("if (" + selected + ") sink.booleanField($L, ($L & $T.$L) != 0)",
+                        i, param.type.flagsName(), renderer.name, mask);
+            } else if (param.type.isBitSet() && usedBitSets.contains(param.formattedName())) {
+                projectBlock.addStatement("int $L = payload.readIntLE()", param.formattedName());
+                projectBlock.addStatement("if (" + selected + ") sink.intField($L, $L)", i, param.formattedName());
+            } else if (param.type.isFlag()) {
+                String mask = bitMask.apply(param.formattedName(), Naming.As.SCREMALIZED);
+                projectBlock.beginControlFlow("if (($L & $T.$L) != 0) {", param.type.flagsName(), renderer.name, mask);
+                writeProjectField(projectBlock, param.type.innerType(), i, selected);
+                projectBlock.endControlFlow("}");
+            } else {
+                writeProjectField(projectBlock, param.type, i, selected);
+            }
+        }
+
+        String projectMethodName = uniqueMethodName("project", name, () ->
+                camelize(parentPackageName(constructor.name.rawType)), computedProjectors);
+
+        projectMethod.addStatement("case 0x$L -> $L(payload, fields, sink)", constructor.id, projectMethodName);
+
+        projector.addMethod(PrimitiveTypeRef.VOID, projectMethodName, Modifier.PRIVATE, Modifier.STATIC)
+                .addParameter(BYTE_BUF, "payload")
+                .addParameter(long.class, "fields")
+                .addParameter(TL_FIELD_SINK, "sink")
+                .addCode(projectBlock.complete())
+                .complete();
+    }
+
+    private void generateWalkMethod(Type constructor, String name, ClassRef typeName) {
+        Set<String> usedBitSets = constructor.parameters.stream()
+                .filter(p -> p.type.isFlag() && !p.type.isBitFlag())
+                .map(p -> p.type.flagsName())
+                .collect(Collectors.toSet());
+
+        var walkBlock = walker.createCode().incIndent(2);
+        walkBlock.addStatement("visitor.beginObject(name, 0x$L)", constructor.id);
+        for (Parameter param : constructor.parameters) {
+            if (param.type.isBitFlag()) {
+                continue;
+            }
+
+            String jsonName = Objects.requireNonNullElse(SourceNames.jacksonName(param.name), param.formattedName());
+            if (param.type.isBitSet()) {
+                if (usedBitSets.contains(param.formattedName())) {
+                    walkBlock.addStatement("int $L = payload.readIntLE()", param.formattedName());
+                    walkBlock.addStatement("visitor.intField($S, $L)", jsonName, param.formattedName());
+                } else {
+                    walkBlock.addStatement("visitor.intField($S, payload.readIntLE())", jsonName);
+                }
+            } else if (param.type.isFlag()) {
+                String mask = bitMask.apply(param.formattedName(), Naming.As.SCREMALIZED);
+                walkBlock.addStatement("if (($L & $T.$L) != 0) " + walkMethod0(param.type.innerType()),
+                        param.type.flagsName(), typeName, mask, jsonName);
+            } else {
+                walkBlock.addStatement(walkMethod0(param.type), jsonName);
+            }
+        }
+        walkBlock.addStatement("visitor.endObject()");
+
+        String walkMethodName = uniqueMethodName("walk", name, () ->
+                camelize(parentPackageName(constructor.name.rawType)), computedWalkers);
+
+        walkMethod.addStatement("case 0x$L -> $L(payload, name, visitor)", constructor.id, walkMethodName);
+
+        walker.addMethod(PrimitiveTypeRef.VOID, walkMethodName, Modifier.PRIVATE, Modifier.STATIC)
+                .addParameter(BYTE_BUF, "payload")
+                .addParameter(STRING, "name")
+                .addParameter(TL_VISITOR, "visitor")
+                .addCode(walkBlock.complete())
+                .complete();
+    }
+
+    private void generateJsonReadMethod(Type constructor, String name, ClassRef typeName) {
+        var readBlock = jsonReader.createCode().incIndent(2);
+        readBlock.addStatement("var fields = new TlJsonFields(buf.alloc(), 0x$L, $L)",
+                constructor.id, constructor.parameters.size());
+        readBlock.beginControlFlow("try {");
+
+        // primitive values are kept in the locals, other ones are buffered in the fields
+        for (Parameter param : constructor.parameters) {
+            if (param.type.isBitFlag()) {
+                continue;
+            }
+
+            TypeNameBase type = param.type.isFlag() ? param.type.innerType() : param.type;
+            switch (type.rawType) {
+                case "#", "int" -> readBlock.addStatement("int $L = 0", param.formattedName());
+                case "long" -> readBlock.addStatement("long $L = 0", param.formattedName());
+                case "double" -> readBlock.addStatement("double $L = 0", param.formattedName());
+                case "Bool" -> readBlock.addStatement("boolean $L = false", param.formattedName());
+            }
+        }
+
+        readBlock.addStatement("String fieldName");
+        readBlock.beginControlFlow("while ((fieldName = nextField(parser)) != null) {");
+        readBlock.beginControlFlow("switch (fieldName) {");
+
+        long required = 0;
+        for (int i = 0, n = constructor.parameters.size(); i < n; i++) {
+            Parameter param = constructor.parameters.get(i);
+            if (param.type.isBitFlag()) {
+                continue;
+            }
+            if (!param.type.isFlag() && !param.type.isBitSet()) {
+                required |= 1L << i;
+            }
+
+            String jsonName = Objects.requireNonNullElse(SourceNames.jacksonName(param.name), param.formattedName());
+            TypeNameBase type = param.type.isFlag() ? param.type.innerType() : param.type;
+            switch (type.rawType) {
+                case "#", "int" -> readBlock.addStatement("case $S -> $L = fields.intValue($L, parser)", jsonName, param.formattedName(), i);
+                case "long" -> readBlock.addStatement("case $S -> $L = fields.longValue($L, parser)", jsonName, param.formattedName(), i);
+                case "double" -> readBlock.addStatement("case $S -> $L = fields.doubleValue($L, parser)", jsonName, param.formattedName(), i);
+                case "Bool" -> readBlock.addStatement("case $S -> $L = fields.booleanValue($L, parser)", jsonName, param.formattedName(), i);
+                default -> readBlock.addStatement("case $S -> " + jsonReadMethod0(type, "fields.begin(" + i + ")"), jsonName);
+            }
+        }
+
+        readBlock.addStatement("default -> parser.skipChildren()");
+        readBlock.endControlFlow();
+        readBlock.endControlFlow();
+        readBlock.addStatement("fields.complete(0x$LL)", Long.toHexString(required));
+
+        // presence of optional values is derived from the fields, not from the bit sets
+        for (int i = 0, n = constructor.parameters.size(); i < n; i++) {
+            Parameter param = constructor.parameters.get(i);
+            if (!param.type.isBitSet()) {
+                continue;
+            }
+
+            var masks = new StringJoiner(" | ");
+            var flags = new StringBuilder();
+            var maskArgs = new ArrayList<>();
+            var flagArgs = new ArrayList<>();
+            for (int j = 0; j < n; j++) {
+                Parameter p = constructor.parameters.get(j);
+                if (!p.type.isFlag() || p.type.isBitFlag() || !p.type.flagsName().equals(param.formattedName())) {
+                    continue;
+                }
+
+                String mask = bitMask.apply(p.formattedName(), Naming.As.SCREMALIZED);
+                masks.add("$T.$L");
+                maskArgs.add(typeName);
+                maskArgs.add(mask);
+                flags.append(" | fields.flag($L, $T.$L)");
+                flagArgs.add(j);
+                flagArgs.add(typeName);
+                flagArgs.add(mask);
+            }
+
+            if (masks.length() != 0) {
+                var args = new ArrayList<>();
+                args.add(param.formattedName());
+                args.add(param.formattedName());
+                args.addAll(maskArgs);
+                args.addAll(flagArgs);
+                readBlock.addStatement("$L = $L & ~(" + masks + ")" + flags, args.toArray());
+            }
+        }
+
+        for (int i = 0, n = constructor.parameters.size(); i < n; i++) {
+            Parameter param = constructor.parameters.get(i);
+            if (param.type.isBitFlag()) {
+                continue;
+            }
+
+            TypeNameBase type = param.type.isFlag() ? param.type.innerType() : param.type;
+            String write = switch (type.rawType) {
+                case "#", "int" -> "buf.writeIntLE(" + param.formattedName() + ")";
+                case "long" -> "buf.writeLongLE(" + param.formattedName() + ")";
+                case "double" -> "buf.writeDoubleLE(" + param.formattedName() + ")";
+                case "Bool" -> "buf.writeIntLE(" + param.formattedName() + " ? BOOL_TRUE_ID : BOOL_FALSE_ID)";
+                default -> "fields.write(buf, " + i + ")";
+            };
+
+            if (param.type.isFlag()) {
+                String mask = bitMask.apply(param.formattedName(), Naming.As.SCREMALIZED);
+                readBlock.addStatement("if (($L & $T.$L) != 0) " + write, param.type.flagsName(), typeName, mask);
+            } else {
+                readBlock.addStatement(write);
+            }
+        }
+
+        readBlock.nextControlFlow("} finally {");
+        readBlock.addStatement("fields.release()");
+        readBlock.endControlFlow("}");
+
+        String readMethodName = uniqueMethodName("read", name, () ->
+                camelize(parentPackageName(constructor.name.rawType)), computedJsonReaders);
+
+        jsonReadMethod.addStatement("case 0x$L -> $L(parser, buf)", constructor.id, readMethodName);
+
+        jsonReader.addMethod(PrimitiveTypeRef.VOID, readMethodName, Modifier.PRIVATE, Modifier.STATIC)
+                .addParameter(JsonParser.class, "parser")
+                .addParameter(BYTE_BUF, "buf")
+                .addExceptions(IOException.class)
+                .addCode(readBlock.complete())
+                .complete();
+    }
+
+    private void writeProjectField(CodeRenderer<CharSequence> block, TypeNameBase type, int pos, String selected) {
+        String skip = skipMethod0(type);
+        switch (type.rawType) {
+            case "#", "int" -> block.addStatement("if (" + selected + ") sink.intField($L, payload.readIntLE()); else " + skip, pos);
+            case "long" -> block.addStatement("if (" + selected + ") sink.longField($L, payload.readLongLE()); else " + skip, pos);
+            case "double" -> block.addStatement("if (" + selected + ") sink.doubleField($L, payload.readDoubleLE()); else " + skip, pos);
+            case "Bool" -> block.addStatement("if (" + selected + ") sink.booleanField($L, deserializeBoolean(payload)); else " + skip, pos);
+            case "bytes", "string" -> block.addStatement("if (" + selected + ") sink.bytesField($L, deserializeBytes(payload)); else " + skip, pos);
+            case "int128", "int256" -> block.addStatement("if (" + selected + ") sink.bytesField($L, payload.readSlice($L)); else " + skip,
+                    pos, sizeOfPrimitive(type));
+            default -> {
+                String callback = type instanceof TlProcessing.TypeName t && t.isVector() ? "vectorField" : "objectField";
+                block.beginControlFlow("if (" + selected + ") {");
+                block.addStatement("int start = payload.readerIndex()");
+                block.addStatement(skip);
+                block.addStatement("sink.$L($L, payload.slice(start, payload.readerIndex() - start))", callback, pos);
+                block.nextControlFlow("} else {");
+                block.addStatement(skip);
+                block.endControlFlow("}");
+            }
+        }
+    }
+
     private ValueType prepareType(Type tlType, ClassRef baseType, boolean singleton,
                                   List<TypeVariableRef> typeVars, TypeRef superType) {
         ValueType valType = new ValueType(baseType, typeVars);
@@ -856,23 +1422,14 @@ public class SchemaGenerator extends AbstractProcessor {
 
                 computedEnums.add(qualifiedName);
                 var types = currTypeTree.get(qualifiedName);
-                for (int i = 0; i < types.size(); i++) {
-                    Type constructor = types.get(i);
+                var ids = types.stream()
+                        .map(c -> c.id)
+                        .collect(Collectors.toList());
 
-                    if (i == 0) {
-                        deserializeMethod.addCode("case ");
-                        tlTypeOf.addCode("case ");
-                    }
-                    deserializeMethod.addCode("0x$L", constructor.id);
-                    tlTypeOf.addCode("0x$L", constructor.id);
-                    if (i + 1 < types.size()) {
-                        tlTypeOf.addCodeFormatted(",$W ");
-                        deserializeMethod.addCodeFormatted(",$W ");
-                    } else {
-                        tlTypeOf.addCode(" -> $T.class;", className).ln();
-                        deserializeMethod.addCode(" -> $T.of(identifier);", className).ln();
-                    }
+                addTypeOfCase(className, ids);
+                addDeserializeCase(className.packageName, ids, "$T.of(identifier)", className);
 
+                for (Type constructor : types) {
                     String subtypeName = constructor.name.normalized();
                     String constName = screamilize(subtypeName.substring(shortenName.length()));
 
@@ -881,6 +1438,7 @@ public class SchemaGenerator extends AbstractProcessor {
                     ofMethodCode.addStatement("case 0x$L -> $L", constructor.id, constName);
 
                     emptyObjectsIds.add(constructor.id);
+                    emptySkipIds.add(constructor.id);
                 }
 
                 renderer.addField(int.class, "identifier", Modifier.PRIVATE, Modifier.FINAL).complete();
@@ -942,7 +1500,7 @@ public class SchemaGenerator extends AbstractProcessor {
         }
     }
 
-    private void generateAttribute(Parameter param, TopLevelRenderer renderer) {
+    private void generateAttribute(Parameter param, int index, TopLevelRenderer renderer) {
         TypeRef paramType = mapType(param.type);
 
         var attribute = renderer.addMethod(paramType, param.formattedName());
@@ -950,8 +1508,10 @@ public class SchemaGenerator extends AbstractProcessor {
         if (!param.type.isBitFlag()) {
             var ann = renderer.createAnnotation(JsonProperty.class);
             if (param.name.contains("_")) {
-                ann.addAttribute(param.name);
+                ann.addAttribute("value", param.name);
             }
+            // position of parameter in the schema, used as key by compact TlModule
+            ann.addAttribute("index", index);
 
             attribute.addAnnotation(ann);
         }
@@ -980,6 +1540,23 @@ public class SchemaGenerator extends AbstractProcessor {
                 .complete();
     }
 
+    // serialized size of constructor which has only primitive parameters, otherwise -1
+    private int fixedSizeOf(Type type) {
+        int size = 4;
+        for (Parameter param : type.parameters) {
+            if (param.type.isBitFlag()) {
+                continue;
+            }
+
+            int s = sizeOfPrimitive(param.type);
+            if (s == -1) {
+                return -1;
+            }
+            size = Math.addExact(size, s);
+        }
+        return size;
+    }
+
     private int sizeOfPrimitive(TlProcessing.TypeNameBase type) {
         return switch (type.rawType) {
             case "int256" -> 32;
@@ -990,6 +1567,148 @@ public class SchemaGenerator extends AbstractProcessor {
         };
     }
 
+    // Lazy dispatch finds group of identifier by binary search over sorted identifiers in TlInfo
+    // and delegates to nested holder of group, which has switch over identifiers of one package.
+    private void generateDispatch() {
+        Map<Integer, Integer> groups = new TreeMap<>();
+        List<String> holders = new ArrayList<>();
+
+        for (var e : typeOfCases.entrySet()) {
+            List<List<DispatchCase>> chunks = new ArrayList<>();
+            List<DispatchCase> chunk = null;
+            int count = 0;
+            for (var c : e.getValue()) {
+                if (chunk == null || count + c.ids().size() > DISPATCH_GROUP_SIZE) {
+                    chunk = new ArrayList<>();
+                    chunks.add(chunk);
+                    count = 0;
+                }
+                chunk.add(c);
+                count += c.ids().size();
+            }
+
+            String name = dispatchHolderName(e.getKey());
+            for (int i = 0; i < chunks.size(); i++) {
+                int group = holders.size();
+                String holder = chunks.size() > 1 ? name + i : name;
+                holders.add(holder);
+
+                var typeOf = tlInfo.addType(holder, ClassRenderer.Kind.CLASS)
+                        .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                        .addMethod(ParameterizedTypeRef.of(Class.class, WildcardTypeRef.subtypeOf(TL_OBJECT)), "typeOf",
+                                Modifier.STATIC)
+                        .addParameter(int.class, "id")
+                        .beginControlFlow("return switch (id) {");
+
+                for (var c : chunks.get(i)) {
+                    renderCase(typeOf, c);
+                    for (String id : c.ids()) {
+                        groups.put(Integer.parseUnsignedInt(id, 16), group);
+                    }
+                }
+
+                typeOf.addStatement("default -> throw new IllegalArgumentException($S + Integer.toHexString(id))",
+                                "Incorrect TlObject identifier: 0x")
+                        .endControlFlow("};")
+                        .complete()
+                        .complete();
+
+                tlTypeOf.addStatement("case $L -> $L.typeOf(id)", group, holder);
+            }
+        }
+
+        tlInfo.addField(int[].class, "DISPATCH_IDS", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer(groups.keySet().stream()
+                                .map(id -> "0x$L")
+                                .collect(Collectors.joining(",$W ", "{", "}")),
+                        groups.keySet().stream()
+                                .map(Integer::toHexString)
+                                .toArray())
+                .complete();
+
+        tlInfo.addField(short[].class, "DISPATCH_GROUPS", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer(groups.values().stream()
+                                .map(group -> "$L")
+                                .collect(Collectors.joining(",$W ", "{", "}")),
+                        groups.values().toArray())
+                .complete();
+
+        tlInfo.addMethod(int.class, "dispatchGroup", Modifier.STATIC)
+                .addParameter(int.class, "id")
+                .addStatement("int i = $T.binarySearch(DISPATCH_IDS, id)", Arrays.class)
+                .addStatement("return i >= 0 ? DISPATCH_GROUPS[i] : -1")
+                .complete();
+
+        Map<Integer, List<DispatchCase>> deserializeGroups = new TreeMap<>();
+        for (var cases : deserializeCases.values()) {
+            for (var c : cases) {
+                int group = groups.get(Integer.parseUnsignedInt(c.ids().get(0), 16));
+                deserializeGroups.computeIfAbsent(group, k -> new ArrayList<>()).add(c);
+            }
+        }
+
+        deserializeMethod.beginControlFlow("default -> switch (dispatchGroup(identifier)) {");
+        for (var e : deserializeGroups.entrySet()) {
+            String holder = holders.get(e.getKey());
+
+            var dispatch = deserializer.addType(holder, ClassRenderer.Kind.CLASS)
+                    .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                    .addMethod(Object.class, "deserialize", Modifier.STATIC)
+                    .addParameter(int.class, "identifier")
+                    .addParameter(BYTE_BUF, "payload")
+                    .beginControlFlow("return switch (identifier) {");
+
+            for (var c : e.getValue()) {
+                renderCase(dispatch, c);
+            }
+
+            dispatch.addStatement("default -> throw new IllegalArgumentException($S + Integer.toHexString(identifier))",
+                            "Incorrect TlObject identifier: 0x")
+                    .endControlFlow("};")
+                    .complete()
+                    .complete();
+
+            deserializeMethod.addStatement("case $L -> $L.deserialize(identifier, payload)", e.getKey(), holder);
+        }
+    }
+
+    private static String dispatchHolderName(String packageName) {
+        if (packageName.equals(BASE_PACKAGE)) {
+            return "DispatchBase";
+        }
+
+        String name = camelize(packageName.substring(BASE_PACKAGE.length() + 1));
+        return "Dispatch" + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    private void addTypeOfCase(ClassRef type, List<String> ids) {
+        addCase(tlTypeOf, typeOfCases, type.packageName, new DispatchCase(ids, "$T.class", type));
+    }
+
+    private void addDeserializeCase(String packageName, List<String> ids, String format, Object... args) {
+        addCase(deserializeMethod, deserializeCases, packageName, new DispatchCase(ids, format, args));
+    }
+
+    private void addCase(MethodRenderer<?> method, Map<String, List<DispatchCase>> cases,
+                         String packageName, DispatchCase c) {
+        if (lazyDispatch) {
+            cases.computeIfAbsent(packageName, k -> new ArrayList<>()).add(c);
+        } else {
+            renderCase(method, c);
+        }
+    }
+
+    private static void renderCase(MethodRenderer<?> method, DispatchCase c) {
+        method.addCode("case ");
+        for (int i = 0; i < c.ids().size(); i++) {
+            if (i != 0) {
+                method.addCodeFormatted(",$W ");
+            }
+            method.addCode("0x$L", c.ids().get(i));
+        }
+        method.addCode(" -> " + c.format() + ';', c.args()).ln();
+    }
+
     private void preparePackages() {
         try {
             String template = processingEnv.getFiler().getResource(StandardLocation.ANNOTATION_PROCESSOR_PATH,
@@ -1099,7 +1818,7 @@ public class SchemaGenerator extends AbstractProcessor {
 
                         // NOTE: bare vectors (msg_container, future_salts)
                         if (t.rawType.contains("%")) {
-                            yield "deserializeVector0(payload, true, TlDeserializer::deserializeMessage)";
+                            yield "deserializeVector0(payload, true, TlSerialUtil::skipMessage, TlDeserializer::deserializeMessage)";
                         } else if (t.rawType.contains("future_salt")) {
                             yield "deserializeVector0(payload, true, TlDeserializer::deserializeFutureSalt)";
                         } else {
@@ -1119,6 +1838,105 @@ public class SchemaGenerator extends AbstractProcessor {
         };
     }
 
+    private String skipMethod0(TypeNameBase type) {
+        int size = sizeOfPrimitive(type);
+        if (size != -1 && !type.rawType.equals("Bool")) {
+            return "payload.skipBytes(" + size + ")";
+        }
+
+        return switch (type.rawType) {
+            case "Bool" -> "skipBoolean(payload)";
+            case "bytes", "string" -> "skipString(payload)";
+            case "JSONValue" -> "skipJsonNode(payload)";
+            default -> {
+                if (type instanceof TlProcessing.TypeName t && t.isVector()) {
+                    String innerTypeRaw = t.innerType().rawType;
+
+                    // NOTE: bare vectors (msg_container, future_salts)
+                    if (t.rawType.contains("%")) {
+                        yield "skipVector0(payload, true, TlSerialUtil::skipMessage)";
+                    } else if (t.rawType.contains("future_salt")) {
+                        yield "skipVector0(payload, true, 16)";
+                    }
+
+                    yield switch (innerTypeRaw) {
+                        case "int" -> "skipVector0(payload, false, 4)";
+                        case "long" -> "skipVector0(payload, false, 8)";
+                        case "bytes", "string" -> "skipStringVector(payload)";
+                        default -> "skipVector(payload)";
+                    };
+                }
+                yield "skip(payload)";
+            }
+        };
+    }
+
+    private String walkMethod0(TypeNameBase type) {
+        return switch (type.rawType) {
+            case "#", "int" -> "visitor.intField($S, payload.readIntLE())";
+            case "long" -> "visitor.longField($S, payload.readLongLE())";
+            case "double" -> "visitor.doubleField($S, payload.readDoubleLE())";
+            case "Bool" -> "visitor.booleanField($S, deserializeBoolean(payload))";
+            case "string" -> "visitor.stringField($S, deserializeBytes(payload))";
+            case "bytes" -> "visitor.bytesField($S, deserializeBytes(payload))";
+            case "int128" -> "visitor.bytesField($S, readInt128(payload))";
+            case "int256" -> "visitor.bytesField($S, readInt256(payload))";
+            case "JSONValue" -> "visitor.jsonField($S, deserializeJsonNode(payload))";
+            default -> {
+                if (type instanceof TlProcessing.TypeName t && t.isVector()) {
+                    String innerTypeRaw = t.innerType().rawType;
+
+                    // NOTE: bare vectors (msg_container, future_salts)
+                    if (t.rawType.contains("%")) {
+                        yield "walkVector0(payload, true, $S, visitor, b -> walkMessage(b, null, visitor))";
+                    } else if (t.rawType.contains("future_salt")) {
+                        yield "walkVector0(payload, true, $S, visitor, b -> walkFutureSalt(b, null, visitor))";
+                    }
+
+                    String specific = switch (innerTypeRaw) {
+                        case "int", "long", "bytes", "string" ->
+                                Character.toUpperCase(innerTypeRaw.charAt(0))
+                                        + innerTypeRaw.substring(1);
+                        default -> "";
+                    };
+                    yield "walk" + specific + "Vector(payload, $S, visitor)";
+                }
+                yield "walk(payload, $S, visitor)";
+            }
+        };
+    }
+
+    private String jsonReadMethod0(TypeNameBase type, String buf) {
+        return switch (type.rawType) {
+            case "bytes" -> "readBytes(parser, " + buf + ")";
+            case "string" -> "readString(parser, " + buf + ")";
+            case "int128" -> "readFixedBytes(parser, " + buf + ", 16)";
+            case "int256" -> "readFixedBytes(parser, " + buf + ", 32)";
+            case "JSONValue" -> "readJsonValue(parser, " + buf + ")";
+            default -> {
+                if (type instanceof TlProcessing.TypeName t && t.isVector()) {
+                    String innerTypeRaw = t.innerType().rawType;
+
+                    // NOTE: bare vectors (msg_container, future_salts)
+                    if (t.rawType.contains("%")) {
+                        yield "readVector0(parser, " + buf + ", true, (p, b) -> readBare(p, b, TlJsonReader::readMessage))";
+                    } else if (t.rawType.contains("future_salt")) {
+                        yield "readVector0(parser, " + buf + ", true, (p, b) -> readBare(p, b, TlJsonReader::readFutureSalt))";
+                    }
+
+                    String specific = switch (innerTypeRaw) {
+                        case "int", "long", "bytes", "string" ->
+                                Character.toUpperCase(innerTypeRaw.charAt(0))
+                                        + innerTypeRaw.substring(1);
+                        default -> "";
+                    };
+                    yield "read" + specific + "Vector(parser, " + buf + ")";
+                }
+                yield "read(parser, " + buf + ")";
+            }
+        };
+    }
+
     private String byteBufMethod(Parameter param) {
         return switch (param.type.rawType) {
             case "Bool", "#", "int" -> "writeIntLE";
@@ -1251,6 +2069,19 @@ public class SchemaGenerator extends AbstractProcessor {
         return name;
     }
 
+    private TlTrees.Scheme readScheme(ObjectMapper mapper, String name) throws IOException {
+        // binary scheme is compiled from the json one by the build
+        try (InputStream is = processingEnv.getFiler().getResource(StandardLocation.ANNOTATION_PROCESSOR_PATH,
+                "", name + BinaryScheme.EXTENSION).openInputStream()) {
+            return BinaryScheme.read(is);
+        } catch (FileNotFoundException e) {
+            try (InputStream is = processingEnv.getFiler().getResource(StandardLocation.ANNOTATION_PROCESSOR_PATH,
+                    "", name + ".json").openInputStream()) {
+                return mapper.readValue(is, TlTrees.Scheme.class);
+            }
+        }
+    }
+
     private Map<String, List<Type>> collectTypeTree(Configuration config, TlTrees.Scheme schema) {
         return schema.constructors().stream()
                 .filter(c -> !ignoredTypes.contains(c.type()) && !primitiveTypes.contains(c.type()))
@@ -1264,4 +2095,6 @@ public class SchemaGenerator extends AbstractProcessor {
                 .map(Tuple2::getT2)
                 .collect(Collectors.toList());
     }
+
+    record DispatchCase(List<String> ids, String format, Object... args) {}
 }
@@ -33,6 +33,9 @@ final class SchemaGeneratorConsts {
     private SchemaGeneratorConsts() {
     }
 
+    // max count of identifiers in one holder of lazy dispatch, which keeps its switch compilable by JIT
+    static final int DISPATCH_GROUP_SIZE = 256;
+
     static final Pattern FLAG_PATTERN = Pattern.compile("^(\\w+)\\.(\\d+)\\?(.+)$");
     static final Pattern VECTOR_PATTERN = Pattern.compile("^[vV]ector<%?([\\w.<>]+)>$");
     // excluded from generation
@@ -84,6 +87,10 @@ final class SchemaGeneratorConsts {
     static final ClassRef BYTE_BUF = ClassRef.of(ByteBuf.class);
     static final ClassRef TL_OBJECT = ClassRef.of("telegram4j.tl.api", "TlObject");
     static final ClassRef TL_METHOD = ClassRef.of("telegram4j.tl.api", "TlMethod");
+    static final ClassRef TL_FIELD_SINK = ClassRef.of(BASE_PACKAGE, "TlFieldSink");
+    static final ClassRef TL_VISITOR = ClassRef.of(BASE_PACKAGE, "TlVisitor");
+    static final ClassRef TL_SIZE_TABLE = ClassRef.of(BASE_PACKAGE, "TlSizeTable");
+    static final ClassRef INSTRUMENTATION = ClassRef.of(BASE_PACKAGE, "Instrumentation");
     static final ClassRef UTILITY = ClassRef.of("telegram4j.tl.api", "TlEncodingUtil");
     static final ClassRef OBJECTS = ClassRef.of(Objects.class);
 
@@ -104,6 +111,7 @@ final class SchemaGeneratorConsts {
         static final Naming sizeVariable = Naming.from("*Size");
         static final Naming bitMask = Naming.from("*Mask");
         static final Naming bitPos = Naming.from("*Pos");
+        static final Naming field = Naming.from("*Field");
 
         static final Naming immutable = Naming.from("Immutable*");
         static final Naming add = Naming.from("add*");
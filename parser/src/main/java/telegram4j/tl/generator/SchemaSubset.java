@@ -0,0 +1,153 @@
+/*
+ * Copyright 2023 Telegram4J
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package telegram4j.tl.generator;
+
+import telegram4j.tl.parser.ImmutableTlTrees;
+import telegram4j.tl.parser.TlTrees;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.stream.Collectors;
+
+import static telegram4j.tl.generator.SchemaGeneratorConsts.*;
+
+/** Utility to reduce scheme to the types which are reachable from the specified roots. */
+final class SchemaSubset {
+
+    private final Map<String, TlTrees.Type> methods;
+    private final Map<String, TlTrees.Type> constructors;
+    private final Map<String, List<TlTrees.Type>> typeTree;
+
+    private final Set<TlTrees.Type> reachable = new LinkedHashSet<>();
+    private final Set<String> visitedTypes = new HashSet<>();
+    private final ArrayDeque<TlTrees.Type> queue = new ArrayDeque<>();
+
+    private SchemaSubset(TlTrees.Scheme schema) {
+        methods = schema.methods().stream()
+                .collect(Collectors.toMap(TlTrees.Type::name, t -> t, (a, b) -> a));
+        constructors = schema.constructors().stream()
+                .collect(Collectors.toMap(TlTrees.Type::name, t -> t, (a, b) -> a));
+        typeTree = schema.constructors().stream()
+                .collect(Collectors.groupingBy(TlTrees.Type::type, HashMap::new, Collectors.toList()));
+    }
+
+    /**
+     * Computes the subset of scheme with specified roots and all types referenced by them.
+     * Each root may be a name of method, e.g. {@code messages.sendMessage}, constructor or type.
+     * Constructors of {@link SchemaGeneratorConsts#primitiveTypes primitive} and
+     * {@link SchemaGeneratorConsts#ignoredTypes ignored} types are always retained.
+     *
+     * @throws IllegalArgumentException if root is absent in the scheme.
+     * @param schema The source scheme.
+     * @param roots The names of root methods, constructors and types.
+     * @return The new scheme with reachable constructors and methods.
+     */
+    static TlTrees.Scheme reduce(TlTrees.Scheme schema, Iterable<String> roots) {
+        var subset = new SchemaSubset(schema);
+        for (String root : roots) {
+            subset.root(root);
+        }
+        for (var c : schema.constructors()) {
+            if (primitiveTypes.contains(c.type()) || ignoredTypes.contains(c.type())) {
+                subset.add(c);
+            }
+        }
+
+        subset.drain();
+
+        // preserve original order of scheme for stable output
+        return ImmutableTlTrees.Scheme.builder()
+                .from(schema)
+                .constructors(schema.constructors().stream()
+                        .filter(subset.reachable::contains)
+                        .collect(Collectors.toList()))
+                .methods(schema.methods().stream()
+                        .filter(subset.reachable::contains)
+                        .collect(Collectors.toList()))
+                .build();
+    }
+
+    private void root(String name) {
+        TlTrees.Type type = methods.get(name);
+        if (type == null) {
+            type = constructors.get(name);
+        }
+
+        if (type != null) {
+            add(type);
+        } else if (!visitType(name)) {
+            throw new IllegalArgumentException("Unknown method, constructor or type in the scheme: '" + name + "'");
+        }
+    }
+
+    private void drain() {
+        TlTrees.Type type;
+        while ((type = queue.poll()) != null) {
+            for (var p : type.parameters()) {
+                visitType(rawTypeName(p.type()));
+            }
+            if (type.kind() == TlTrees.Type.Kind.METHOD) {
+                visitType(rawTypeName(type.type()));
+            }
+        }
+    }
+
+    private boolean visitType(String name) {
+        boolean found = false;
+        var tree = typeTree.get(name);
+        if (tree != null) {
+            found = true;
+            if (visitedTypes.add(name)) {
+                tree.forEach(this::add);
+            }
+        }
+
+        // bare types, like %Message or vector<%Message>
+        var constructor = constructors.get(name);
+        if (constructor != null) {
+            found = true;
+            add(constructor);
+        }
+        return found;
+    }
+
+    private void add(TlTrees.Type type) {
+        if (reachable.add(type)) {
+            queue.add(type);
+        }
+    }
+
+    static String rawTypeName(String type) {
+        Matcher matcher = FLAG_PATTERN.matcher(type);
+        if (matcher.matches()) {
+            type = matcher.group(3);
+        }
+        matcher = VECTOR_PATTERN.matcher(type);
+        if (matcher.matches()) {
+            return rawTypeName(matcher.group(1));
+        }
+        if (type.startsWith("!") || type.startsWith("%")) {
+            return type.substring(1);
+        }
+        return type;
+    }
+}
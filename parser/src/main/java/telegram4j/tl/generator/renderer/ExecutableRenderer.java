@@ -90,7 +90,7 @@ public class ExecutableRenderer<P extends BaseClassRenderer<?>>
 
     public ExecutableRenderer<P> addExceptions(Type first, Type... rest) {
         if (stage != EXCEPTIONS) {
-            RenderUtils.requireStage(stage, ANNOTATIONS, PARAMETERS);
+            RenderUtils.requireStage(stage, ANNOTATIONS, EXCEPTIONS);
             completeStage(EXCEPTIONS);
 
             out.append(" throws ");
@@ -107,7 +107,7 @@ public class ExecutableRenderer<P extends BaseClassRenderer<?>>
     @Override
     public ExecutableRenderer<P> addStatementFormatted(CharSequence code) {
         if (stage != BODY) {
-            RenderUtils.requireStage(stage, ANNOTATIONS, EXCEPTIONS);
+            RenderUtils.requireStage(stage, ANNOTATIONS, BODY);
             completeStage(BODY);
         }
 
@@ -119,7 +119,7 @@ public class ExecutableRenderer<P extends BaseClassRenderer<?>>
     @Override
     public ExecutableRenderer<P> addStatement(CharSequence code) {
         if (stage != BODY) {
-            RenderUtils.requireStage(stage, ANNOTATIONS, EXCEPTIONS);
+            RenderUtils.requireStage(stage, ANNOTATIONS, BODY);
             completeStage(BODY);
         }
 
@@ -130,7 +130,7 @@ public class ExecutableRenderer<P extends BaseClassRenderer<?>>
     @Override
     public ExecutableRenderer<P> addStatement(CharSequence format, Object... args) {
         if (stage != BODY) {
-            RenderUtils.requireStage(stage, ANNOTATIONS, EXCEPTIONS);
+            RenderUtils.requireStage(stage, ANNOTATIONS, BODY);
             completeStage(BODY);
         }
 
@@ -142,7 +142,7 @@ public class ExecutableRenderer<P extends BaseClassRenderer<?>>
     @Override
     public ExecutableRenderer<P> addCode(char c) {
         if (stage != BODY) {
-            RenderUtils.requireStage(stage, ANNOTATIONS, EXCEPTIONS);
+            RenderUtils.requireStage(stage, ANNOTATIONS, BODY);
             completeStage(BODY);
         }
 
@@ -153,7 +153,7 @@ public class ExecutableRenderer<P extends BaseClassRenderer<?>>
     @Override
     public ExecutableRenderer<P> addCode(CharSequence code) {
         if (stage != BODY) {
-            RenderUtils.requireStage(stage, ANNOTATIONS, EXCEPTIONS);
+            RenderUtils.requireStage(stage, ANNOTATIONS, BODY);
             completeStage(BODY);
         }
 
@@ -164,7 +164,7 @@ public class ExecutableRenderer<P extends BaseClassRenderer<?>>
     @Override
     public ExecutableRenderer<P> addCodeFormatted(CharSequence code) {
         if (stage != BODY) {
-            RenderUtils.requireStage(stage, ANNOTATIONS, EXCEPTIONS);
+            RenderUtils.requireStage(stage, ANNOTATIONS, BODY);
             completeStage(BODY);
         }
 
@@ -175,7 +175,7 @@ public class ExecutableRenderer<P extends BaseClassRenderer<?>>
     @Override
     public ExecutableRenderer<P> addCode(CharSequence format, Object... args) {
         if (stage != BODY) {
-            RenderUtils.requireStage(stage, ANNOTATIONS, EXCEPTIONS);
+            RenderUtils.requireStage(stage, ANNOTATIONS, BODY);
             completeStage(BODY);
         }
 
@@ -186,7 +186,7 @@ public class ExecutableRenderer<P extends BaseClassRenderer<?>>
     @Override
     public ExecutableRenderer<P> beginControlFlow(CharSequence code) {
         if (stage != BODY) {
-            RenderUtils.requireStage(stage, ANNOTATIONS, EXCEPTIONS);
+            RenderUtils.requireStage(stage, ANNOTATIONS, BODY);
             completeStage(BODY);
         }
 
@@ -197,7 +197,7 @@ public class ExecutableRenderer<P extends BaseClassRenderer<?>>
     @Override
     public ExecutableRenderer<P> beginControlFlow(CharSequence format, Object... args) {
         if (stage != BODY) {
-            RenderUtils.requireStage(stage, ANNOTATIONS, EXCEPTIONS);
+            RenderUtils.requireStage(stage, ANNOTATIONS, BODY);
             completeStage(BODY);
         }
 
@@ -209,7 +209,7 @@ public class ExecutableRenderer<P extends BaseClassRenderer<?>>
     @Override
     public ExecutableRenderer<P> nextControlFlow(CharSequence code) {
         if (stage != BODY) {
-            RenderUtils.requireStage(stage, ANNOTATIONS, EXCEPTIONS);
+            RenderUtils.requireStage(stage, ANNOTATIONS, BODY);
             completeStage(BODY);
         }
 
@@ -220,7 +220,7 @@ public class ExecutableRenderer<P extends BaseClassRenderer<?>>
     @Override
     public ExecutableRenderer<P> nextControlFlow(CharSequence format, Object... args) {
         if (stage != BODY) {
-            RenderUtils.requireStage(stage, ANNOTATIONS, EXCEPTIONS);
+            RenderUtils.requireStage(stage, ANNOTATIONS, BODY);
             completeStage(BODY);
         }
 
@@ -233,7 +233,7 @@ public class ExecutableRenderer<P extends BaseClassRenderer<?>>
     @Override
     public ExecutableRenderer<P> endControlFlow() {
         if (stage != BODY) {
-            RenderUtils.requireStage(stage, ANNOTATIONS, EXCEPTIONS);
+            RenderUtils.requireStage(stage, ANNOTATIONS, BODY);
             completeStage(BODY);
         }
 
@@ -244,7 +244,7 @@ public class ExecutableRenderer<P extends BaseClassRenderer<?>>
     @Override
     public ExecutableRenderer<P> endControlFlow(CharSequence code) {
         if (stage != BODY) {
-            RenderUtils.requireStage(stage, ANNOTATIONS, EXCEPTIONS);
+            RenderUtils.requireStage(stage, ANNOTATIONS, BODY);
             completeStage(BODY);
         }
 
@@ -255,7 +255,7 @@ public class ExecutableRenderer<P extends BaseClassRenderer<?>>
     @Override
     public ExecutableRenderer<P> endControlFlow(CharSequence format, Object... args) {
         if (stage != BODY) {
-            RenderUtils.requireStage(stage, ANNOTATIONS, EXCEPTIONS);
+            RenderUtils.requireStage(stage, ANNOTATIONS, BODY);
             completeStage(BODY);
         }
 
@@ -268,7 +268,7 @@ public class ExecutableRenderer<P extends BaseClassRenderer<?>>
     @Override
     public ExecutableRenderer<P> incIndent() {
         if (stage != BODY) {
-            RenderUtils.requireStage(stage, ANNOTATIONS, EXCEPTIONS);
+            RenderUtils.requireStage(stage, ANNOTATIONS, BODY);
             completeStage(BODY);
         }
 
@@ -279,7 +279,7 @@ public class ExecutableRenderer<P extends BaseClassRenderer<?>>
     @Override
     public ExecutableRenderer<P> incIndent(int count) {
         if (stage != BODY) {
-            RenderUtils.requireStage(stage, ANNOTATIONS, EXCEPTIONS);
+            RenderUtils.requireStage(stage, ANNOTATIONS, BODY);
             completeStage(BODY);
         }
 
@@ -290,7 +290,7 @@ public class ExecutableRenderer<P extends BaseClassRenderer<?>>
     @Override
     public ExecutableRenderer<P> decIndent() {
         if (stage != BODY) {
-            RenderUtils.requireStage(stage, ANNOTATIONS, EXCEPTIONS);
+            RenderUtils.requireStage(stage, ANNOTATIONS, BODY);
             completeStage(BODY);
         }
 
@@ -301,7 +301,7 @@ public class ExecutableRenderer<P extends BaseClassRenderer<?>>
     @Override
     public ExecutableRenderer<P> decIndent(int count) {
         if (stage != BODY) {
-            RenderUtils.requireStage(stage, ANNOTATIONS, EXCEPTIONS);
+            RenderUtils.requireStage(stage, ANNOTATIONS, BODY);
             completeStage(BODY);
         }
 
@@ -312,7 +312,7 @@ public class ExecutableRenderer<P extends BaseClassRenderer<?>>
     @Override
     public ExecutableRenderer<P> ln() {
         if (stage != BODY) {
-            RenderUtils.requireStage(stage, ANNOTATIONS, EXCEPTIONS);
+            RenderUtils.requireStage(stage, ANNOTATIONS, BODY);
             completeStage(BODY);
         }
 
@@ -323,7 +323,7 @@ public class ExecutableRenderer<P extends BaseClassRenderer<?>>
     @Override
     public ExecutableRenderer<P> ln(int count) {
         if (stage != BODY) {
-            RenderUtils.requireStage(stage, ANNOTATIONS, EXCEPTIONS);
+            RenderUtils.requireStage(stage, ANNOTATIONS, BODY);
             completeStage(BODY);
         }
 
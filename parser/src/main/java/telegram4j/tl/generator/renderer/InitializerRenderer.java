@@ -36,7 +36,7 @@ public class InitializerRenderer<P extends BaseClassRenderer<?>>
     @Override
     protected void complete0() {
         out.decIndent();
-        out.lno().append('}');
+        out.lno().append('}').ln();
     }
 
     @Override
@@ -124,7 +124,7 @@ public class InitializerRenderer<P extends BaseClassRenderer<?>>
     @Override
     public InitializerRenderer<P> endControlFlow() {
         RenderUtils.requireStage(stage, PROCESSING);
-        out.append('}').decIndent().ln();
+        out.decIndent().append('}').ln();
         return this;
     }
 
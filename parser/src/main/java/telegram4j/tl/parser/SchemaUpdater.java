@@ -22,7 +22,6 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import telegram4j.tl.parser.TlTrees.Type.Kind;
 
 import java.io.IOException;
-import java.io.StringReader;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
@@ -60,7 +59,7 @@ class SchemaUpdater {
     }
 
     private static void handleScheme(String data, String version, String filename) throws IOException {
-        try (var p = new TlParser(new StringReader(data));
+        try (var p = new TlParser(data);
              var gen = mapper.writerWithDefaultPrettyPrinter()
                      .createGenerator(Files.newBufferedWriter(Path.of(pathPrefix, filename + ".json")))) {
 
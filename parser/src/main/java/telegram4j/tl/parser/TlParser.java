@@ -21,15 +21,23 @@ import telegram4j.tl.parser.TlTrees.Type.Kind;
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 public class TlParser implements Closeable {
 
+    static final int DEFAULT_BUFFER_SIZE = 8192;
+
     static final int IN_PARAMS = 1; // in params section; changes behavior of NAME, TYPE_NAME tokens
     static final int COMPLETED = 1 << 1; // type processing complete
 
-    private final Reader reader;
+    @Nullable
+    private final Reader reader; // null if whole input is in the buffer
     private final char[] input;
     private final StringBuilder text = new StringBuilder();
+    // bounds of the token text in the input, or -1 if text is in the builder
+    private int textStart;
+    private int textLength = -1;
 
     private int inputPos;
     private int inputEnd;
@@ -44,7 +52,7 @@ public class TlParser implements Closeable {
     private int inputColumnStart; // start of the line
 
     public TlParser(Reader reader) {
-        this(reader, 512);
+        this(reader, DEFAULT_BUFFER_SIZE);
     }
 
     public TlParser(Reader reader, int bufferSize) {
@@ -52,6 +60,29 @@ public class TlParser implements Closeable {
         this.input = new char[bufferSize];
     }
 
+    /**
+     * Creates parser over the whole scheme, which tokens are sliced
+     * from the content without intermediate buffering.
+     *
+     * @param content The text of scheme.
+     */
+    public TlParser(String content) {
+        this.reader = null;
+        this.input = content.toCharArray();
+        this.inputEnd = input.length;
+    }
+
+    /**
+     * Reads the whole scheme file at once and creates parser over its content.
+     *
+     * @param file The path to the scheme file in UTF-8.
+     * @return The new parser over content of file.
+     * @throws IOException if file can't be read.
+     */
+    public static TlParser open(Path file) throws IOException {
+        return new TlParser(Files.readString(file));
+    }
+
     @Nullable
     public Token nextToken() throws IOException {
         if (next != null) {
@@ -67,6 +98,7 @@ public class TlParser implements Closeable {
         }
 
         text.setLength(0);
+        textLength = -1;
         Token t = null;
         char c;
         wsLoop:
@@ -128,7 +160,7 @@ public class TlParser implements Closeable {
                         if (curr == Token.ID) {
                             // ex: {t:Type}
                             // no format verification, just skip
-                            skip(r -> r != ' ');
+                            skipUntil(' ');
                             start = inputPos;
                         }
                         break;
@@ -138,7 +170,7 @@ public class TlParser implements Closeable {
                     case '#':
                         // vector#1cb5c415 {t:Type} # [ t ] = Vector t; (just ignore)
                         if (curr == Token.ID) {
-                            skip(r -> r != '=');
+                            skipUntil('=');
                             start = inputPos + 1;
                             allowSpace = true;
                             break;
@@ -197,8 +229,9 @@ public class TlParser implements Closeable {
             }
         }
 
-        int len = inputPos - 1 - start;
-        text.append(input, start, len);
+        // token is entirely in the buffer, so it will be copied only on request
+        textStart = start;
+        textLength = inputPos - 1 - start;
 
         curr = t;
         return t;
@@ -209,6 +242,8 @@ public class TlParser implements Closeable {
             throw new IllegalStateException("Unable to get a text value for the token type: " + curr);
         if (curr == Token.DECLARATION)
             return kind.toString();
+        if (textLength != -1)
+            return new String(input, textStart, textLength);
         return text.toString();
     }
 
@@ -252,7 +287,7 @@ public class TlParser implements Closeable {
                 switch (c) {
                     case '{':
                         if (curr == Token.ID) {
-                            skip(r -> r != ' ');
+                            skipUntil(' ');
                             start = inputPos;
                         }
                         break;
@@ -262,7 +297,7 @@ public class TlParser implements Closeable {
                     case '#':
                         // vector#1cb5c415 {t:Type} # [ t ] = Vector t; (just ignore)
                         if (curr == Token.ID) {
-                            skip(r -> r != '=');
+                            skipUntil('=');
                             start = inputPos;
                             allowSpace = true;
                             break;
@@ -325,24 +360,32 @@ public class TlParser implements Closeable {
         return t;
     }
 
-    private void skip(CharPredicate pred) throws IOException {
-        char c;
-        do {
-            if (inputPos >= inputEnd) {
-                if (!loadMore()) {
-                    handleEOF();
+    // skips chars up to and including the terminator
+    private void skipUntil(char terminator) throws IOException {
+        while (true) {
+            for (int i = inputPos; i < inputEnd; i++) {
+                char c = input[i];
+                if (c == '\n' || c == '\r') {
+                    inputPos = i + 1;
+                    updateLocation(c);
+                }
+                if (c == terminator) {
+                    inputPos = i + 1;
                     return;
                 }
             }
 
-            c = input[inputPos++];
-            updateLocation(c);
-        } while (pred.test(c));
+            inputPos = inputEnd;
+            if (!loadMore()) {
+                handleEOF();
+                return;
+            }
+        }
     }
 
     private void skipComment() throws IOException {
         if (input[inputPos] == '/') {
-            skip(c -> c != '\n');
+            skipUntil('\n');
         } else {
             throw createException(inputPos, "Unexpected char in comment begin '" + input[inputPos] + "'");
         }
@@ -472,6 +515,10 @@ public class TlParser implements Closeable {
     }
 
     private boolean loadMore() throws IOException {
+        if (reader == null) {
+            return false;
+        }
+
         int c = reader.read(input);
         if (c == -1) {
             return false;
@@ -499,7 +546,7 @@ public class TlParser implements Closeable {
     }
 
     private void skipType0() throws IOException {
-        skip(c -> c != ';');
+        skipUntil(';');
 
         char c;
         wsLoop:
@@ -528,14 +575,11 @@ public class TlParser implements Closeable {
         inputPos--;
     }
 
-    private interface CharPredicate {
-
-         boolean test(char c);
-    }
-
     @Override
     public void close() throws IOException {
-        reader.close();
+        if (reader != null) {
+            reader.close();
+        }
     }
 
     public enum Token {
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2023 Telegram4J
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package telegram4j.tl.generator;
+
+import org.junit.jupiter.api.Test;
+import telegram4j.tl.parser.ImmutableTlTrees;
+import telegram4j.tl.parser.TlTrees;
+import telegram4j.tl.parser.TlTrees.Type.Kind;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SchemaSubsetTest {
+
+    static TlTrees.Type type(Kind kind, String name, String type, String... params) {
+        var builder = ImmutableTlTrees.Type.builder()
+                .kind(kind)
+                .id(Integer.toHexString(name.hashCode()))
+                .name(name)
+                .type(type);
+        for (int i = 0; i < params.length; i++) {
+            builder.addParameters(ImmutableTlTrees.Parameter.builder()
+                    .name("p" + i)
+                    .type(params[i])
+                    .build());
+        }
+        return builder.build();
+    }
+
+    static List<String> names(List<TlTrees.Type> types) {
+        return types.stream()
+                .map(TlTrees.Type::name)
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    void reduce() {
+        var schema = ImmutableTlTrees.Scheme.builder()
+                .version("1")
+                .addConstructors(
+                        type(Kind.CONSTRUCTOR, "boolTrue", "Bool"),
+                        type(Kind.CONSTRUCTOR, "peerUser", "Peer", "long"),
+                        type(Kind.CONSTRUCTOR, "peerChat", "Peer", "long"),
+                        type(Kind.CONSTRUCTOR, "message", "Message", "#", "flags.0?Peer", "vector<%messageEntity>"),
+                        type(Kind.CONSTRUCTOR, "messageEntity", "MessageEntity", "int"),
+                        type(Kind.CONSTRUCTOR, "updates", "Updates", "Vector<Message>"),
+                        type(Kind.CONSTRUCTOR, "photo", "Photo", "long"))
+                .addMethods(
+                        type(Kind.METHOD, "messages.sendMessage", "Updates", "Peer", "string"),
+                        type(Kind.METHOD, "photos.getPhoto", "Photo", "long"))
+                .build();
+
+        var subset = SchemaSubset.reduce(schema, List.of("messages.sendMessage"));
+        assertEquals(List.of("boolTrue", "peerUser", "peerChat", "message", "messageEntity", "updates"),
+                names(subset.constructors()));
+        assertEquals(List.of("messages.sendMessage"), names(subset.methods()));
+        assertEquals("1", subset.version());
+
+        subset = SchemaSubset.reduce(schema, List.of("Photo"));
+        assertEquals(List.of("boolTrue", "photo"), names(subset.constructors()));
+        assertTrue(subset.methods().isEmpty());
+
+        assertThrows(IllegalArgumentException.class, () -> SchemaSubset.reduce(schema, List.of("unknown")));
+    }
+}
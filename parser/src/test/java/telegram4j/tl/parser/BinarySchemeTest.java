@@ -0,0 +1,77 @@
+/*
+ * Copyright 2023 Telegram4J
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package telegram4j.tl.parser;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinarySchemeTest {
+
+    @Test
+    void roundtrip() throws IOException {
+        var mapper = new ObjectMapper();
+        for (String resource : new String[]{"/api.json", "/mtproto.json"}) {
+            TlTrees.Scheme scheme;
+            int jsonSize;
+            try (InputStream is = getClass().getResourceAsStream(resource)) {
+                byte[] json = is.readAllBytes();
+                jsonSize = json.length;
+                scheme = mapper.readValue(json, TlTrees.Scheme.class);
+            }
+
+            var out = new ByteArrayOutputStream();
+            BinaryScheme.write(scheme, out);
+            assertTrue(out.size() * 4 < jsonSize, "Binary scheme isn't compact: " + out.size());
+
+            var read = BinaryScheme.read(new ByteArrayInputStream(out.toByteArray()));
+            assertEquals(scheme, read);
+        }
+    }
+
+    @Test
+    void incorrectMagic() {
+        assertThrows(TlParseException.class, () -> BinaryScheme.read(
+                new ByteArrayInputStream(new byte[]{'{', '\n', ' ', ' ', '"'})));
+    }
+
+    @Test
+    void incorrectStringIndex() throws IOException {
+        var out = new ByteArrayOutputStream();
+        var data = new DataOutputStream(out);
+        data.write(BinaryScheme.MAGIC);
+        data.writeByte(BinaryScheme.FORMAT_VERSION);
+        BinaryScheme.writeVarInt(data, 0); // no version
+        BinaryScheme.writeVarInt(data, 1);
+        BinaryScheme.writeVarInt(data, 1);
+        data.writeByte('a');
+        BinaryScheme.writeVarInt(data, 1); // constructors
+        data.writeInt(0x1cb5c415);
+        // 5-byte varint with the top bit, which is decoded to negative index
+        BinaryScheme.writeVarInt(data, -1);
+
+        var e = assertThrows(TlParseException.class, () -> BinaryScheme.read(
+                new ByteArrayInputStream(out.toByteArray())));
+        assertEquals("Incorrect index of string: -1", e.getMessage());
+    }
+}
@@ -15,10 +15,12 @@
  */
 package telegram4j.tl.parser;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import telegram4j.tl.parser.TlTrees.Type.Kind;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.util.Objects;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -35,7 +37,11 @@ class TlParserTest {
             in = new StringReader(resource);
         }
 
-        try (TlParser p = new TlParser(in)) {
+        return readTl(new TlParser(in));
+    }
+
+    TlTrees.Scheme readTl(TlParser parser) {
+        try (TlParser p = parser) {
             var scheme = ImmutableTlTrees.Scheme.builder();
             var type = ImmutableTlTrees.Type.builder();
             var param = ImmutableTlTrees.Parameter.builder();
@@ -85,6 +91,27 @@ class TlParserTest {
         }
     }
 
+    @Test
+    void bundledScheme() throws IOException {
+        String content;
+        try (InputStream is = getClass().getResourceAsStream("/api.tl")) {
+            Objects.requireNonNull(is, "Unable to find bundled scheme");
+            content = new String(is.readAllBytes(), StandardCharsets.UTF_8);
+        }
+
+        TlTrees.Scheme expected;
+        try (InputStream is = getClass().getResourceAsStream("/api.json")) {
+            expected = new ObjectMapper().readValue(is, TlTrees.Scheme.class);
+        }
+
+        // tokens on boundaries of small buffer must be same as sliced from the whole content
+        var buffered = readTl(new TlParser(new StringReader(content), 512));
+        var sliced = readTl(new TlParser(content));
+        assertEquals(buffered, sliced);
+        assertEquals(expected.constructors(), sliced.constructors());
+        assertEquals(expected.methods(), sliced.methods());
+    }
+
     @Test
     void checkFormat() {
         var scheme = readTl(
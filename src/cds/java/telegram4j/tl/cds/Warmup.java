@@ -0,0 +1,107 @@
+/*
+ * Copyright 2023 Telegram4J
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package telegram4j.tl.cds;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import telegram4j.tl.BaseMessage;
+import telegram4j.tl.ImmutableInputPeerUser;
+import telegram4j.tl.ImmutableMessageEntityBold;
+import telegram4j.tl.ImmutablePeerUser;
+import telegram4j.tl.TlDeserializer;
+import telegram4j.tl.TlInfo;
+import telegram4j.tl.TlSerializer;
+import telegram4j.tl.api.TlObject;
+import telegram4j.tl.request.messages.SendMessage;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/**
+ * Warm-up of the codec for recording class list of CDS archive.
+ * Loads all classes of the TL module jar and encodes few common objects to link serialization paths.
+ */
+public final class Warmup {
+
+    private Warmup() {
+    }
+
+    public static void main(String[] args) throws IOException, URISyntaxException {
+        ClassLoader loader = Warmup.class.getClassLoader();
+
+        // AppCDS archives classes only from jars, so module is always packaged
+        Path jar = Path.of(TlInfo.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        int loaded = 0;
+        try (var file = new JarFile(jar.toFile())) {
+            var entries = file.entries();
+            while (entries.hasMoreElements()) {
+                JarEntry entry = entries.nextElement();
+                String name = entry.getName();
+                if (name.endsWith(".class") && !name.endsWith("module-info.class")) {
+                    loaded += load(loader, name.substring(0, name.length() - 6).replace('/', '.'));
+                }
+            }
+        }
+
+        var message = BaseMessage.builder()
+                .id(1)
+                .fromId(ImmutablePeerUser.of(1))
+                .peerId(ImmutablePeerUser.of(2))
+                .date(0)
+                .message("warm-up")
+                .entities(List.of(ImmutableMessageEntityBold.of(0, 4)))
+                .build();
+
+        var request = SendMessage.builder()
+                .peer(ImmutableInputPeerUser.of(2, 0))
+                .message("warm-up")
+                .randomId(1)
+                .build();
+
+        roundTrip(message);
+        roundTrip(message.withMessage("again"));
+        // methods are only encoded by client
+        TlSerializer.serialize(ByteBufAllocator.DEFAULT, request).release();
+
+        System.out.println("Loaded " + loaded + " classes of TL module");
+    }
+
+    static int load(ClassLoader loader, String name) {
+        try {
+            Class.forName(name, false, loader);
+            return 1;
+        } catch (ClassNotFoundException | LinkageError e) {
+            // classes with optional dependencies, like Jackson modules
+            return 0;
+        }
+    }
+
+    static void roundTrip(TlObject object) {
+        ByteBuf buf = TlSerializer.serialize(ByteBufAllocator.DEFAULT, object);
+        try {
+            TlObject copy = TlDeserializer.deserialize(buf);
+            if (!copy.equals(object)) {
+                throw new IllegalStateException("Unexpected result of deserialization: " + copy);
+            }
+        } finally {
+            buf.release();
+        }
+    }
+}
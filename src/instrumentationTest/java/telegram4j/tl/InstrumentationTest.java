@@ -0,0 +1,100 @@
+/*
+ * Copyright 2023 Telegram4J
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package telegram4j.tl;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import org.junit.jupiter.api.Test;
+import telegram4j.tl.api.TlInstrumentation;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InstrumentationTest {
+
+    // registered in META-INF/services
+    public static final class Counting implements TlInstrumentation {
+        static final Map<Integer, LongAdder> encoded = new ConcurrentHashMap<>();
+        static final Map<Integer, LongAdder> decoded = new ConcurrentHashMap<>();
+        static final Map<Integer, LongAdder> encodedBytes = new ConcurrentHashMap<>();
+        static final LongAdder compressed = new LongAdder();
+        static final LongAdder decompressed = new LongAdder();
+
+        @Override
+        public void onEncode(int identifier, int bytes, long nanos) {
+            encoded.computeIfAbsent(identifier, k -> new LongAdder()).increment();
+            encodedBytes.computeIfAbsent(identifier, k -> new LongAdder()).add(bytes);
+        }
+
+        @Override
+        public void onDecode(int identifier, int bytes, long nanos) {
+            decoded.computeIfAbsent(identifier, k -> new LongAdder()).increment();
+        }
+
+        @Override
+        public void onCompress(int bytes, int compressedBytes, long nanos) {
+            compressed.increment();
+        }
+
+        @Override
+        public void onDecompress(int compressedBytes, int bytes, long nanos) {
+            decompressed.increment();
+        }
+
+        static long count(Map<Integer, LongAdder> map, int identifier) {
+            LongAdder adder = map.get(identifier);
+            return adder != null ? adder.sum() : 0;
+        }
+    }
+
+    @Test
+    void counters() throws IOException {
+        assertTrue(Instrumentation.ENABLED);
+
+        var message = BaseMessage.builder()
+                .id(1)
+                .peerId(ImmutablePeerChannel.of(100))
+                .date(10)
+                .message("text")
+                .build();
+
+        long messages = Counting.count(Counting.encoded, BaseMessage.ID);
+        long messageBytes = Counting.count(Counting.encodedBytes, BaseMessage.ID);
+        long peers = Counting.count(Counting.encoded, PeerChannel.ID);
+        ByteBuf buf = TlSerializer.serialize(UnpooledByteBufAllocator.DEFAULT, message);
+        // nested objects are reported too
+        assertEquals(messages + 1, Counting.count(Counting.encoded, BaseMessage.ID));
+        assertEquals(messageBytes + TlSerializer.sizeOf(message), Counting.count(Counting.encodedBytes, BaseMessage.ID));
+        assertEquals(peers + 1, Counting.count(Counting.encoded, PeerChannel.ID));
+
+        long decodedMessages = Counting.count(Counting.decoded, BaseMessage.ID);
+        assertEquals(message, TlDeserializer.deserialize(buf));
+        assertEquals(decodedMessages + 1, Counting.count(Counting.decoded, BaseMessage.ID));
+        buf.release();
+
+        long compressed = Counting.compressed.sum();
+        long decompressed = Counting.decompressed.sum();
+        ByteBuf packed = TlSerialUtil.compressGzip(UnpooledByteBufAllocator.DEFAULT, 6, message);
+        assertEquals(message, TlSerialUtil.decompressGzip(packed));
+        packed.release();
+        assertEquals(compressed + 1, Counting.compressed.sum());
+        assertEquals(decompressed + 1, Counting.decompressed.sum());
+    }
+}
@@ -14,6 +14,7 @@
  * limitations under the License.
  */
 import com.fasterxml.jackson.databind.Module;
+import telegram4j.tl.api.TlInstrumentation;
 import telegram4j.tl.json.TlModule;
 
 module telegram4j.tl {
@@ -22,6 +23,7 @@ module telegram4j.tl {
 	requires com.fasterxml.jackson.databind;
 
 	requires static telegram4j.tl.parser;
+	requires static java.compiler;
 
 	exports telegram4j.tl;
 	exports telegram4j.tl.account;
@@ -31,6 +33,7 @@ module telegram4j.tl {
 	exports telegram4j.tl.channels;
 	exports telegram4j.tl.chatlists;
 	exports telegram4j.tl.contacts;
+	exports telegram4j.tl.dynamic;
 	exports telegram4j.tl.help;
 	exports telegram4j.tl.json;
 	exports telegram4j.tl.messages;
@@ -62,10 +65,13 @@ module telegram4j.tl {
 	exports telegram4j.tl.stats;
 	exports telegram4j.tl.stickers;
 	exports telegram4j.tl.storage;
+	exports telegram4j.tl.store;
 	exports telegram4j.tl.stories;
 	exports telegram4j.tl.updates;
 	exports telegram4j.tl.upload;
 	exports telegram4j.tl.users;
 
+	uses TlInstrumentation;
+
 	provides Module with TlModule;
 }
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2023 Telegram4J
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package telegram4j.tl;
+
+import io.netty.buffer.ByteBuf;
+import telegram4j.tl.api.TlInstrumentation;
+import telegram4j.tl.api.TlObject;
+
+import java.util.ServiceLoader;
+
+/* Holder of the installed instrumentation. Codecs check ENABLED constant before
+   any call, so the disabled instrumentation costs nothing after JIT compilation. */
+final class Instrumentation {
+
+    static final TlInstrumentation INSTANCE = ServiceLoader.load(TlInstrumentation.class,
+                    TlInstrumentation.class.getClassLoader())
+            .findFirst()
+            .orElse(null);
+    static final boolean ENABLED = INSTANCE != null;
+
+    private Instrumentation() {
+    }
+
+    static ByteBuf serialize(ByteBuf buf, TlObject payload) {
+        int start = buf.writerIndex();
+        long time = System.nanoTime();
+        TlSerializer.serialize0(buf, payload);
+        int identifier = payload.identifier();
+        int size = buf.writerIndex() - start;
+        INSTANCE.onEncode(identifier, size, System.nanoTime() - time);
+        if (INSTANCE.sample(identifier)) {
+            INSTANCE.onSample(identifier, buf.slice(start, size).asReadOnly());
+        }
+        return buf;
+    }
+
+    static <T> T deserialize(ByteBuf payload) {
+        int start = payload.readerIndex();
+        long time = System.nanoTime();
+        T result = TlDeserializer.deserialize0(payload);
+        int identifier = payload.getIntLE(start);
+        int size = payload.readerIndex() - start;
+        INSTANCE.onDecode(identifier, size, System.nanoTime() - time);
+        if (INSTANCE.sample(identifier)) {
+            INSTANCE.onSample(identifier, payload.slice(start, size).asReadOnly());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,254 @@
+/*
+ * Copyright 2023 Telegram4J
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package telegram4j.tl;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.util.ReferenceCountUtil;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.annotation.Nullable;
+import telegram4j.tl.api.TlObject;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** Reactive adapters for the TL serialization. */
+public final class TlCodecs {
+
+    /** The default minimal size of buffers produced by {@link #encode(Flux, ByteBufAllocator)}. */
+    public static final int DEFAULT_BATCH_SIZE = 16 * 1024;
+
+    /** The default maximal size of single object accepted by {@link #decode(Flux)}. */
+    public static final int DEFAULT_MAX_OBJECT_SIZE = 16 * 1024 * 1024;
+
+    private TlCodecs() {
+    }
+
+    /**
+     * Decodes stream of concatenated boxed TL objects. Chunks may split objects at any position,
+     * incomplete objects are accumulated until next chunk arrives. Object boundaries
+     * are detected by {@link TlSkipper}, so objects are decoded only once fully received.
+     * Vectors of unknown type, e.g. top-level ones, are handled as vectors of boxed objects,
+     * since vectors of primitives can't be distinguished without the scheme. Stream with such
+     * vectors of primitives terminates with {@link IllegalStateException}.
+     * Received buffers are released by decoder, stream terminates with {@link IllegalStateException}
+     * if source completes in the middle of object or object exceeds {@link #DEFAULT_MAX_OBJECT_SIZE}.
+     *
+     * @see #decode(Flux, int)
+     * @param <T> The type of decoded objects.
+     * @param source The source of buffers, ownership of which is transferred to the decoder.
+     * @return A {@link Flux} emitting decoded objects.
+     */
+    public static <T> Flux<T> decode(Flux<ByteBuf> source) {
+        return decode(source, DEFAULT_MAX_OBJECT_SIZE);
+    }
+
+    /**
+     * Decodes stream of concatenated boxed TL objects, accumulating at most {@code maxObjectSize}
+     * bytes of incomplete object. Stream terminates with {@link IllegalStateException} when
+     * the object doesn't fit into this limit, e.g. if it has a corrupted length.
+     *
+     * @param <T> The type of decoded objects.
+     * @param source The source of buffers, ownership of which is transferred to the decoder.
+     * @param maxObjectSize The maximal size of single object in bytes.
+     * @return A {@link Flux} emitting decoded objects.
+     * @throws IllegalArgumentException if {@code maxObjectSize} is not positive.
+     */
+    public static <T> Flux<T> decode(Flux<ByteBuf> source, int maxObjectSize) {
+        if (maxObjectSize <= 0) {
+            throw new IllegalArgumentException("Invalid max object size: " + maxObjectSize);
+        }
+        return Flux.defer(() -> {
+            var decoder = new Decoder<T>(maxObjectSize);
+            return source.concatMapIterable(decoder::decode)
+                    .concatWith(Mono.defer(decoder::complete))
+                    .doOnDiscard(ByteBuf.class, ReferenceCountUtil::safeRelease)
+                    .doFinally(signal -> decoder.release());
+        });
+    }
+
+    /**
+     * Encodes stream of TL objects to buffers with {@link #DEFAULT_BATCH_SIZE default batch size}.
+     *
+     * @see #encode(Flux, ByteBufAllocator, int)
+     * @param source The source of objects.
+     * @param allocator The allocator for the buffers.
+     * @return A {@link Flux} emitting serialized objects.
+     */
+    public static Flux<ByteBuf> encode(Flux<? extends TlObject> source, ByteBufAllocator allocator) {
+        return encode(source, allocator, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Encodes stream of TL objects, coalescing consecutive objects into
+     * single buffer until its size reaches {@code batchSize}.
+     * The last batch is emitted on source completion. Objects are requested from
+     * source only when downstream requests new buffer.
+     *
+     * @param source The source of objects.
+     * @param allocator The allocator for the buffers.
+     * @param batchSize The minimal size of buffer to emit, values {@literal <= 0} disable coalescing.
+     * @return A {@link Flux} emitting serialized objects, ownership of buffers is transferred to subscriber.
+     */
+    public static Flux<ByteBuf> encode(Flux<? extends TlObject> source, ByteBufAllocator allocator, int batchSize) {
+        return Flux.defer(() -> {
+            var accumulated = new int[1];
+            return source.map(SizedObject::new)
+                    .bufferUntil(o -> {
+                        accumulated[0] += o.size;
+                        if (accumulated[0] >= batchSize) {
+                            accumulated[0] = 0;
+                            return true;
+                        }
+                        return false;
+                    })
+                    .map(batch -> {
+                        int size = 0;
+                        for (SizedObject o : batch) {
+                            size += o.size;
+                        }
+
+                        ByteBuf buf = allocator.buffer(size);
+                        try {
+                            for (SizedObject o : batch) {
+                                TlSerializer.serialize(buf, o.object);
+                            }
+                            return buf;
+                        } catch (Throwable t) {
+                            buf.release();
+                            throw t;
+                        }
+                    });
+        });
+    }
+
+    static final class SizedObject {
+        final TlObject object;
+        final int size;
+
+        SizedObject(TlObject object) {
+            this.object = object;
+            int size = TlSerializer.fixedSizeOf(object.identifier());
+            this.size = size != -1 ? size : TlSerializer.sizeOf(object);
+        }
+    }
+
+    static final class Decoder<T> {
+        final int maxObjectSize;
+
+        @Nullable
+        CompositeByteBuf cumulation;
+        boolean released;
+        // the amount of readable bytes needed before next attempt to skip pending object
+        long required;
+
+        Decoder(int maxObjectSize) {
+            this.maxObjectSize = maxObjectSize;
+        }
+
+        synchronized List<T> decode(ByteBuf chunk) {
+            if (released) {
+                chunk.release();
+                return List.of();
+            }
+
+            if (cumulation == null) {
+                cumulation = chunk.alloc().compositeBuffer(Integer.MAX_VALUE);
+            }
+            cumulation.addComponent(true, chunk);
+
+            var result = new ArrayList<T>();
+            TlSerialUtil.streamFraming.set(Boolean.TRUE);
+            try {
+                while (cumulation.isReadable() && cumulation.readableBytes() >= required) {
+                    int start = cumulation.readerIndex();
+                    try {
+                        TlSkipper.skip(cumulation);
+                    } catch (TlSerialUtil.Underflow e) {
+                        // length-prefixed data isn't fully received, its end is known
+                        required = e.endIndex - start;
+                        cumulation.readerIndex(start);
+                        checkPending();
+                        break;
+                    } catch (IndexOutOfBoundsException e) {
+                        // fixed-size read stopped at the writer index, at least one more byte is needed
+                        required = cumulation.readerIndex() - start + 1L;
+                        cumulation.readerIndex(start);
+                        checkPending();
+                        break;
+                    }
+
+                    required = 0;
+                    int end = cumulation.readerIndex();
+                    cumulation.readerIndex(start);
+                    // deserializer sees only bytes of the object
+                    ByteBuf frame = cumulation.readSlice(end - start);
+                    result.add(deserialize(frame));
+                    if (frame.isReadable()) {
+                        throw new IllegalStateException("Incorrect boundaries of TL object at index: " + start);
+                    }
+                }
+            } finally {
+                TlSerialUtil.streamFraming.remove();
+            }
+
+            cumulation.discardReadComponents();
+            return result;
+        }
+
+        @SuppressWarnings("unchecked")
+        T deserialize(ByteBuf frame) {
+            if (frame.getIntLE(frame.readerIndex()) != TlInfo.VECTOR_ID) {
+                return TlDeserializer.deserialize(frame);
+            }
+
+            // elements are boxed objects, as they were framed
+            frame.skipBytes(4);
+            int size = frame.readIntLE();
+            var list = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                list.add(TlDeserializer.deserialize(frame));
+            }
+            return (T) list;
+        }
+
+        void checkPending() {
+            long size = Math.max(required, cumulation.readableBytes());
+            if (size > maxObjectSize) {
+                throw new IllegalStateException("TL object at index " + cumulation.readerIndex()
+                        + " requires " + size + " bytes, which exceeds limit of " + maxObjectSize + " bytes");
+            }
+        }
+
+        synchronized Mono<T> complete() {
+            if (cumulation != null && cumulation.isReadable()) {
+                return Mono.error(new IllegalStateException("Incomplete TL object at end of stream, "
+                        + cumulation.readableBytes() + " bytes remaining"));
+            }
+            return Mono.empty();
+        }
+
+        synchronized void release() {
+            released = true;
+            if (cumulation != null) {
+                cumulation.release();
+                cumulation = null;
+            }
+        }
+    }
+}
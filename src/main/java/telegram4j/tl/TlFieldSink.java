@@ -0,0 +1,95 @@
+/*
+ * Copyright 2023 Telegram4J
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package telegram4j.tl;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Receiver of field values extracted by {@code TlProjector.project(ByteBuf, long, TlFieldSink)}.
+ *
+ * <p>Fields are identified by their position in the constructor,
+ * which are available as {@code *_FIELD} constants of the constructor types.
+ * Set of requested fields is a bit mask of these positions, e.g. {@code 1L << BaseMessage.ID_FIELD | 1L << BaseMessage.DATE_FIELD}.
+ * Absent optional fields are not reported.
+ *
+ * <p>Buffers passed to the callbacks are slices of the payload and
+ * valid only while the payload isn't released.
+ */
+public interface TlFieldSink {
+
+    /**
+     * Receives value of {@code int} or {@code #} field.
+     *
+     * @param field The position of field.
+     * @param value The field value.
+     */
+    default void intField(int field, int value) {
+    }
+
+    /**
+     * Receives value of {@code long} field.
+     *
+     * @param field The position of field.
+     * @param value The field value.
+     */
+    default void longField(int field, long value) {
+    }
+
+    /**
+     * Receives value of {@code double} field.
+     *
+     * @param field The position of field.
+     * @param value The field value.
+     */
+    default void doubleField(int field, double value) {
+    }
+
+    /**
+     * Receives value of {@code Bool} field or bit flag.
+     *
+     * @param field The position of field.
+     * @param value The field value.
+     */
+    default void booleanField(int field, boolean value) {
+    }
+
+    /**
+     * Receives value of {@code bytes}, {@code int128}, {@code int256} field or UTF-8 encoded {@code string} field.
+     *
+     * @param field The position of field.
+     * @param value The slice of field value.
+     */
+    default void bytesField(int field, ByteBuf value) {
+    }
+
+    /**
+     * Receives serialized vector with its header.
+     *
+     * @param field The position of field.
+     * @param value The slice of serialized vector.
+     */
+    default void vectorField(int field, ByteBuf value) {
+    }
+
+    /**
+     * Receives serialized boxed object, which can be projected too.
+     *
+     * @param field The position of field.
+     * @param value The slice of serialized object.
+     */
+    default void objectField(int field, ByteBuf value) {
+    }
+}
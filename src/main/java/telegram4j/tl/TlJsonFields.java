@@ -0,0 +1,276 @@
+/*
+ * Copyright 2023 Telegram4J
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package telegram4j.tl;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import reactor.util.annotation.Nullable;
+
+import java.io.IOException;
+import java.util.StringJoiner;
+
+import static telegram4j.tl.TlInfo.*;
+import static telegram4j.tl.TlSerialUtil.serializeBytes;
+import static telegram4j.tl.TlSerialUtil.serializeString;
+
+/**
+ * Fields of object which are read from JSON in arbitrary order
+ * and written in order of the constructor parameters.
+ * Fields of non-primitive types are buffered, primitive ones are kept by caller.
+ */
+final class TlJsonFields {
+
+    private final ByteBufAllocator alloc;
+    private final int identifier;
+    private final int[] offsets;
+
+    @Nullable
+    private ByteBuf scratch;
+    private long present;
+    private int current = -1;
+
+    TlJsonFields(ByteBufAllocator alloc, int identifier, int count) {
+        this.alloc = alloc;
+        this.identifier = identifier;
+        this.offsets = new int[count * 2];
+    }
+
+    ByteBuf begin(int field) {
+        end();
+        if (scratch == null) {
+            scratch = alloc.buffer();
+        }
+
+        present |= 1L << field;
+        offsets[field * 2] = scratch.writerIndex();
+        current = field;
+        return scratch;
+    }
+
+    int intValue(int field, JsonParser parser) throws IOException {
+        present |= 1L << field;
+        return parser.getIntValue();
+    }
+
+    long longValue(int field, JsonParser parser) throws IOException {
+        present |= 1L << field;
+        return parser.getLongValue();
+    }
+
+    double doubleValue(int field, JsonParser parser) throws IOException {
+        present |= 1L << field;
+        return parser.getDoubleValue();
+    }
+
+    boolean booleanValue(int field, JsonParser parser) throws IOException {
+        present |= 1L << field;
+        return parser.getBooleanValue();
+    }
+
+    int flag(int field, int mask) {
+        return (present & 1L << field) != 0 ? mask : 0;
+    }
+
+    void complete(long required) {
+        end();
+        long missing = required & ~present;
+        if (missing != 0) {
+            var positions = new StringJoiner(", ", "[", "]");
+            for (int i = 0; i < Long.SIZE; i++) {
+                if ((missing & 1L << i) != 0) {
+                    positions.add(Integer.toString(i));
+                }
+            }
+            throw new IllegalArgumentException("Missing required fields of object 0x"
+                    + Integer.toHexString(identifier) + ": " + positions);
+        }
+    }
+
+    void write(ByteBuf buf, int field) {
+        if ((present & 1L << field) == 0) {
+            throw new IllegalArgumentException("Missing field of object 0x"
+                    + Integer.toHexString(identifier) + ": " + field);
+        }
+
+        int start = offsets[field * 2];
+        buf.writeBytes(scratch, start, offsets[field * 2 + 1] - start);
+    }
+
+    void release() {
+        if (scratch != null) {
+            scratch.release();
+            scratch = null;
+        }
+    }
+
+    private void end() {
+        if (current != -1) {
+            offsets[current * 2 + 1] = scratch.writerIndex();
+            current = -1;
+        }
+    }
+
+    // read methods
+
+    @FunctionalInterface
+    interface ValueReader {
+
+        void read(JsonParser parser, ByteBuf buf) throws IOException;
+    }
+
+    @Nullable
+    static String nextField(JsonParser parser) throws IOException {
+        String name = parser.nextFieldName();
+        if (name != null) {
+            parser.nextToken();
+        }
+        return name;
+    }
+
+    static void skipFields(JsonParser parser) throws IOException {
+        while (nextField(parser) != null) {
+            parser.skipChildren();
+        }
+    }
+
+    static int readIdentifier(JsonParser parser) throws IOException {
+        if (!"identifier".equals(parser.nextFieldName()) || parser.nextToken() != JsonToken.VALUE_NUMBER_INT) {
+            throw new JsonParseException(parser, "Expected 'identifier' as first, but given '"
+                    + parser.currentName() + "' with type " + parser.currentToken());
+        }
+        return parser.getIntValue();
+    }
+
+    static int readValueIdentifier(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_TRUE) {
+            return BOOL_TRUE_ID;
+        } else if (token == JsonToken.VALUE_FALSE) {
+            return BOOL_FALSE_ID;
+        } else if (token == JsonToken.VALUE_NUMBER_INT) { // simplified form of empty objects
+            return parser.getIntValue();
+        }
+        throw new JsonParseException(parser, "Unexpected token for TL object: " + token);
+    }
+
+    static void readBare(JsonParser parser, ByteBuf buf, ValueReader reader) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser, "Unexpected token for bare TL object: " + parser.currentToken());
+        }
+        readIdentifier(parser); // type of bare objects is known by the field
+        reader.read(parser, buf);
+    }
+
+    static void readString(JsonParser parser, ByteBuf buf) throws IOException {
+        serializeString(buf, parser.getText());
+    }
+
+    static void readBytes(JsonParser parser, ByteBuf buf) throws IOException {
+        serializeBytes(buf, Unpooled.wrappedBuffer(ByteBufUtil.decodeHexDump(parser.getText())));
+    }
+
+    static void readFixedBytes(JsonParser parser, ByteBuf buf, int size) throws IOException {
+        byte[] bytes = ByteBufUtil.decodeHexDump(parser.getText());
+        if (bytes.length != size) {
+            throw new JsonParseException(parser, "Incorrect length of value: " + bytes.length + ", expected: " + size);
+        }
+        buf.writeBytes(bytes);
+    }
+
+    static void readIntVector(JsonParser parser, ByteBuf buf) throws IOException {
+        readVector0(parser, buf, false, (p, b) -> b.writeIntLE(p.getIntValue()));
+    }
+
+    static void readLongVector(JsonParser parser, ByteBuf buf) throws IOException {
+        readVector0(parser, buf, false, (p, b) -> b.writeLongLE(p.getLongValue()));
+    }
+
+    static void readStringVector(JsonParser parser, ByteBuf buf) throws IOException {
+        readVector0(parser, buf, false, TlJsonFields::readString);
+    }
+
+    static void readBytesVector(JsonParser parser, ByteBuf buf) throws IOException {
+        readVector0(parser, buf, false, TlJsonFields::readBytes);
+    }
+
+    static void readVector(JsonParser parser, ByteBuf buf) throws IOException {
+        readVector0(parser, buf, false, TlJsonReader::read);
+    }
+
+    static void readVector0(JsonParser parser, ByteBuf buf, boolean bare, ValueReader reader) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            throw new JsonParseException(parser, "Unexpected token for vector: " + parser.currentToken());
+        }
+
+        if (!bare) {
+            buf.writeIntLE(VECTOR_ID);
+        }
+        int sizeIndex = buf.writerIndex();
+        buf.writeIntLE(0);
+
+        int size = 0;
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            reader.read(parser, buf);
+            size++;
+        }
+        buf.setIntLE(sizeIndex, size);
+    }
+
+    static void readJsonValue(JsonParser parser, ByteBuf buf) throws IOException {
+        JsonToken token = parser.currentToken();
+        switch (token) {
+            case VALUE_NULL -> buf.writeIntLE(JSON_NULL_ID);
+            case VALUE_TRUE, VALUE_FALSE -> {
+                buf.writeIntLE(JSON_BOOL_ID);
+                buf.writeIntLE(token == JsonToken.VALUE_TRUE ? BOOL_TRUE_ID : BOOL_FALSE_ID);
+            }
+            case VALUE_STRING -> {
+                buf.writeIntLE(JSON_STRING_ID);
+                serializeString(buf, parser.getText());
+            }
+            case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> {
+                buf.writeIntLE(JSON_NUMBER_ID);
+                buf.writeDoubleLE(parser.getDoubleValue());
+            }
+            case START_ARRAY -> {
+                buf.writeIntLE(JSON_ARRAY_ID);
+                readVector0(parser, buf, false, TlJsonFields::readJsonValue);
+            }
+            case START_OBJECT -> {
+                buf.writeIntLE(JSON_OBJECT_ID);
+                buf.writeIntLE(VECTOR_ID);
+                int sizeIndex = buf.writerIndex();
+                buf.writeIntLE(0);
+
+                int size = 0;
+                String name;
+                while ((name = nextField(parser)) != null) {
+                    buf.writeIntLE(JSON_OBJECT_VALUE_ID);
+                    serializeString(buf, name);
+                    readJsonValue(parser, buf);
+                    size++;
+                }
+                buf.setIntLE(sizeIndex, size);
+            }
+            default -> throw new JsonParseException(parser, "Unexpected token for json value: " + token);
+        }
+    }
+}
@@ -0,0 +1,249 @@
+/*
+ * Copyright 2023 Telegram4J
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package telegram4j.tl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.json.UTF8JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import reactor.util.annotation.Nullable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Transcoder between serialized TL objects and their JSON form, as produced by
+ * {@link telegram4j.tl.json.TlModule}, which doesn't materialize the objects.
+ */
+public final class TlJsonTranscoder {
+
+    private TlJsonTranscoder() {
+    }
+
+    /**
+     * Writes boxed TL object as JSON. The {@code identifier} property is written first
+     * and fields of empty types are written in the simplified form, i.e. as identifier only.
+     *
+     * @throws IOException if generator fails to write.
+     * @param payload The buffer with serialized object.
+     * @param generator The generator to write JSON.
+     */
+    public static void toJson(ByteBuf payload, JsonGenerator generator) throws IOException {
+        try {
+            TlWalker.walk(payload, new JsonWriter(generator));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Writes JSON value, which parser points to, as boxed TL object.
+     * Properties of objects may be in arbitrary order, unknown properties are ignored.
+     *
+     * @throws IOException if parser fails to read or JSON doesn't represent TL object.
+     * @throws IllegalArgumentException if object has unknown identifier or misses required fields.
+     * @param parser The parser positioned at the start of value or before it.
+     * @param buf The buffer to write serialized object.
+     */
+    public static void toTl(JsonParser parser, ByteBuf buf) throws IOException {
+        if (!parser.hasCurrentToken()) {
+            parser.nextToken();
+        }
+        TlJsonReader.read(parser, buf);
+    }
+
+    static final class JsonWriter implements TlVisitor {
+        final JsonGenerator generator;
+
+        // objects are written on first field, because fields of empty types are written as identifier
+        boolean pending;
+        @Nullable
+        String pendingName;
+        int pendingIdentifier;
+
+        JsonWriter(JsonGenerator generator) {
+            this.generator = generator;
+        }
+
+        @Override
+        public void beginObject(@Nullable String name, int identifier) {
+            try {
+                flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            pending = true;
+            pendingName = name;
+            pendingIdentifier = identifier;
+        }
+
+        @Override
+        public void endObject() {
+            try {
+                if (pending && pendingName != null) {
+                    pending = false;
+                    generator.writeNumberField(pendingName, pendingIdentifier);
+                    return;
+                }
+                flush();
+                generator.writeEndObject();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void beginVector(@Nullable String name, int count) {
+            try {
+                field(name);
+                generator.writeStartArray();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void endVector() {
+            try {
+                generator.writeEndArray();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void intField(@Nullable String name, int value) {
+            try {
+                field(name);
+                generator.writeNumber(value);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void longField(@Nullable String name, long value) {
+            try {
+                field(name);
+                generator.writeNumber(value);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void doubleField(@Nullable String name, double value) {
+            try {
+                field(name);
+                generator.writeNumber(value);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void booleanField(@Nullable String name, boolean value) {
+            try {
+                field(name);
+                generator.writeBoolean(value);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void stringField(@Nullable String name, ByteBuf value) {
+            try {
+                field(name);
+                // only byte-based generators can write encoded strings as is
+                if (generator instanceof UTF8JsonGenerator && value.hasArray()) {
+                    generator.writeUTF8String(value.array(), value.arrayOffset() + value.readerIndex(), value.readableBytes());
+                } else {
+                    generator.writeString(value.toString(StandardCharsets.UTF_8));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void bytesField(@Nullable String name, ByteBuf value) {
+            try {
+                field(name);
+                generator.writeString(ByteBufUtil.hexDump(value));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void jsonField(@Nullable String name, JsonNode value) {
+            try {
+                field(name);
+                writeNode(value);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void writeNode(JsonNode node) throws IOException {
+            // written manually, because serialization of tree nodes requires codec or provider
+            switch (node.getNodeType()) {
+                case OBJECT -> {
+                    generator.writeStartObject();
+                    for (var it = node.fields(); it.hasNext(); ) {
+                        var e = it.next();
+                        generator.writeFieldName(e.getKey());
+                        writeNode(e.getValue());
+                    }
+                    generator.writeEndObject();
+                }
+                case ARRAY -> {
+                    generator.writeStartArray();
+                    for (JsonNode e : node) {
+                        writeNode(e);
+                    }
+                    generator.writeEndArray();
+                }
+                case STRING -> generator.writeString(node.textValue());
+                case BOOLEAN -> generator.writeBoolean(node.booleanValue());
+                case NUMBER -> generator.writeNumber(node.doubleValue());
+                default -> generator.writeNull();
+            }
+        }
+
+        void field(@Nullable String name) throws IOException {
+            flush();
+            if (name != null) {
+                generator.writeFieldName(name);
+            }
+        }
+
+        void flush() throws IOException {
+            if (pending) {
+                pending = false;
+                if (pendingName != null) {
+                    generator.writeFieldName(pendingName);
+                }
+                generator.writeStartObject();
+                generator.writeNumberField("identifier", pendingIdentifier);
+            }
+        }
+    }
+}
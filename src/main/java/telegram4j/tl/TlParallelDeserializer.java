@@ -0,0 +1,156 @@
+/*
+ * Copyright 2023 Telegram4J
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package telegram4j.tl;
+
+import io.netty.buffer.ByteBuf;
+import reactor.util.annotation.Nullable;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Deserializer which decodes elements of large vectors in parallel.
+ * Element boundaries are found by sequential skip-scan, after which elements
+ * are decoded as independent slices on the {@link ForkJoinPool}.
+ * Vectors nested in parallel decoded elements are decoded sequentially.
+ */
+public final class TlParallelDeserializer {
+
+    /** The default minimal count of vector elements to decode in parallel. */
+    public static final int DEFAULT_THRESHOLD = 64;
+
+    static final ThreadLocal<TlParallelDeserializer> current = new ThreadLocal<>();
+
+    private final ForkJoinPool pool;
+    private final int threshold;
+
+    private TlParallelDeserializer(ForkJoinPool pool, int threshold) {
+        this.pool = pool;
+        this.threshold = threshold;
+    }
+
+    /**
+     * Creates parallel deserializer with {@link #DEFAULT_THRESHOLD default threshold}.
+     *
+     * @param pool The pool to run decoding.
+     * @return A new parallel deserializer.
+     */
+    public static TlParallelDeserializer create(ForkJoinPool pool) {
+        return create(pool, DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Creates parallel deserializer.
+     *
+     * @throws IllegalArgumentException if {@code threshold} is less than 2.
+     * @param pool The pool to run decoding.
+     * @param threshold The minimal count of vector elements to decode in parallel.
+     * @return A new parallel deserializer.
+     */
+    public static TlParallelDeserializer create(ForkJoinPool pool, int threshold) {
+        if (threshold < 2) {
+            throw new IllegalArgumentException("Threshold must be greater than 1: " + threshold);
+        }
+        return new TlParallelDeserializer(pool, threshold);
+    }
+
+    /**
+     * Deserializes boxed object, same as {@link TlDeserializer#deserialize(ByteBuf)},
+     * but with parallel decoding of large vectors.
+     *
+     * @param <T> The type of object.
+     * @param payload The buffer to read.
+     * @return The deserialized object.
+     */
+    public <T> T deserialize(ByteBuf payload) {
+        TlParallelDeserializer prev = current.get();
+        current.set(this);
+        try {
+            return TlDeserializer.deserialize(payload);
+        } finally {
+            if (prev != null) {
+                current.set(prev);
+            } else {
+                current.remove();
+            }
+        }
+    }
+
+    @Nullable
+    static TlParallelDeserializer current(int size) {
+        TlParallelDeserializer ctx = current.get();
+        return ctx != null && size >= ctx.threshold ? ctx : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> List<T> deserializeVector(ByteBuf buf, int size, Consumer<? super ByteBuf> skipper,
+                                  Function<? super ByteBuf, ? extends T> parser) {
+        int[] offsets = new int[size + 1];
+        for (int i = 0; i < size; i++) {
+            offsets[i] = buf.readerIndex();
+            skipper.accept(buf);
+        }
+        offsets[size] = buf.readerIndex();
+
+        Object[] result = new Object[size];
+        int grain = Math.max(1, size / (pool.getParallelism() * 4));
+        pool.invoke(new DecodeTask(buf, offsets, result, parser, grain, 0, size));
+        return (List<T>) Arrays.asList(result);
+    }
+
+    static final class DecodeTask extends RecursiveAction {
+        final ByteBuf buf;
+        final int[] offsets;
+        final Object[] result;
+        final Function<? super ByteBuf, ?> parser;
+        final int grain;
+        final int from;
+        final int to;
+
+        DecodeTask(ByteBuf buf, int[] offsets, Object[] result,
+                   Function<? super ByteBuf, ?> parser, int grain, int from, int to) {
+            this.buf = buf;
+            this.offsets = offsets;
+            this.result = result;
+            this.parser = parser;
+            this.grain = grain;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= grain) {
+                for (int i = from; i < to; i++) {
+                    ByteBuf slice = buf.slice(offsets[i], offsets[i + 1] - offsets[i]);
+                    result[i] = parser.apply(slice);
+                    if (slice.isReadable()) {
+                        throw new IllegalStateException("Incorrect boundaries of vector element #" + i
+                                + ", " + slice.readableBytes() + " bytes remaining");
+                    }
+                }
+            } else {
+                int mid = (from + to) >>> 1;
+                invokeAll(new DecodeTask(buf, offsets, result, parser, grain, from, mid),
+                        new DecodeTask(buf, offsets, result, parser, grain, mid, to));
+            }
+        }
+    }
+}
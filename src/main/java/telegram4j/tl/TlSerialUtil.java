@@ -18,6 +18,7 @@ package telegram4j.tl;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.*;
 import io.netty.buffer.*;
+import reactor.util.annotation.Nullable;
 import telegram4j.tl.api.TlObject;
 
 import java.io.IOException;
@@ -27,6 +28,7 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.ToIntFunction;
 import java.util.zip.DeflaterOutputStream;
@@ -42,11 +44,17 @@ public final class TlSerialUtil {
     }
 
     public static ByteBuf compressGzip(ByteBufAllocator allocator, int level, ByteBuf buf) throws IOException {
-        ByteBufOutputStream bufOut = new ByteBufOutputStream(allocator.buffer(buf.readableBytes()));
+        int size = buf.readableBytes();
+        long time = Instrumentation.ENABLED ? System.nanoTime() : 0;
+        if (Instrumentation.ENABLED) Instrumentation.INSTANCE.onAllocate(size);
+        ByteBufOutputStream bufOut = new ByteBufOutputStream(allocator.buffer(size));
         try (DeflaterOutputStream out = new ConfigurableGZIPOutputStream(bufOut, level)) {
             out.write(ByteBufUtil.getBytes(buf));
             out.finish();
             buf.release();
+            if (Instrumentation.ENABLED) {
+                Instrumentation.INSTANCE.onCompress(size, bufOut.buffer().readableBytes(), System.nanoTime() - time);
+            }
             return bufOut.buffer();
         }
     }
@@ -56,7 +64,10 @@ public final class TlSerialUtil {
     }
 
     public static <T> T decompressGzip(ByteBuf packed) throws IOException {
-        ByteBuf result = packed.alloc().buffer(packed.readableBytes());
+        int size = packed.readableBytes();
+        long time = Instrumentation.ENABLED ? System.nanoTime() : 0;
+        if (Instrumentation.ENABLED) Instrumentation.INSTANCE.onAllocate(size);
+        ByteBuf result = packed.alloc().buffer(size);
         try (GZIPInputStream in = new GZIPInputStream(new ByteBufInputStream(packed))) {
             int remaining = Integer.MAX_VALUE;
             int n;
@@ -74,6 +85,9 @@ public final class TlSerialUtil {
                 }
             } while (n >= 0 && remaining > 0);
 
+            if (Instrumentation.ENABLED) {
+                Instrumentation.INSTANCE.onDecompress(size, result.readableBytes(), System.nanoTime() - time);
+            }
             return TlDeserializer.deserialize(result);
         } finally {
             result.release();
@@ -436,7 +450,7 @@ public final class TlSerialUtil {
     }
 
     public static <T> List<T> deserializeVector(ByteBuf buf) {
-        return deserializeVector0(buf, false, TlDeserializer::deserialize);
+        return deserializeVector0(buf, false, TlSkipper::skip, TlDeserializer::deserialize);
     }
 
     public static JsonNode deserializeJsonNode(ByteBuf buf) {
@@ -480,11 +494,33 @@ public final class TlSerialUtil {
     }
 
     static <T> List<T> deserializeVector0(ByteBuf buf, boolean bare, Function<? super ByteBuf, ? extends T> parser) {
+        int size = readVectorSize(buf, bare);
+        return deserializeVector0(buf, size, parser);
+    }
+
+    static <T> List<T> deserializeVector0(ByteBuf buf, boolean bare, Consumer<? super ByteBuf> skipper,
+                                          Function<? super ByteBuf, ? extends T> parser) {
+        int size = readVectorSize(buf, bare);
+        TlParallelDeserializer parallel = TlParallelDeserializer.current(size);
+        if (parallel != null) {
+            return parallel.deserializeVector(buf, size, skipper, parser);
+        }
+        return deserializeVector0(buf, size, parser);
+    }
+
+    static int readVectorSize(ByteBuf buf, boolean bare) {
         int vectorId;
         if (!bare && (vectorId = buf.readIntLE()) != VECTOR_ID) {
             throw new IllegalStateException("Incorrect vector identifier: 0x" + Integer.toHexString(vectorId));
         }
         int size = buf.readIntLE();
+        if (size < 0) {
+            throw new IllegalStateException("Incorrect vector size: " + size);
+        }
+        return size;
+    }
+
+    static <T> List<T> deserializeVector0(ByteBuf buf, int size, Function<? super ByteBuf, ? extends T> parser) {
         var list = new ArrayList<T>(size);
         for (int i = 0; i < size; i++) {
             list.add(parser.apply(buf));
@@ -492,6 +528,202 @@ public final class TlSerialUtil {
         return list;
     }
 
+    // skip methods
+
+    static void skipMessage(ByteBuf buf) {
+        buf.skipBytes(12); // msg_id and seqno
+        int bytes = buf.readIntLE();
+        if (bytes < 0) {
+            throw new IllegalStateException("Incorrect message length: " + bytes);
+        }
+        skipBytes0(buf, bytes);
+    }
+
+    // skips length-prefixed data, reporting the exact end index when it isn't fully readable yet
+    static void skipBytes0(ByteBuf buf, int length) {
+        if (buf.readableBytes() < length) {
+            throw new Underflow(buf.readerIndex() + (long) length);
+        }
+        buf.skipBytes(length);
+    }
+
+    /** Signals that skipped data ends past the writer index of buffer. */
+    static final class Underflow extends IndexOutOfBoundsException {
+        private static final long serialVersionUID = 1L;
+
+        /** The index which must be readable to skip the data. */
+        final long endIndex;
+
+        Underflow(long endIndex) {
+            super("Data ends at index: " + endIndex);
+            this.endIndex = endIndex;
+        }
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this; // used as a signal, not for diagnostics
+        }
+    }
+
+    static void skipBoolean(ByteBuf buf) {
+        int id = buf.readIntLE();
+        if (id != BOOL_TRUE_ID && id != BOOL_FALSE_ID) {
+            throw new IllegalStateException("Incorrect boolean id: 0x" + Integer.toHexString(id));
+        }
+    }
+
+    static void skipString(ByteBuf buf) {
+        int n = buf.readUnsignedByte();
+        int h = 1;
+        if (n >= 0xfe) {
+            n = buf.readUnsignedMediumLE();
+            h = 4;
+        }
+
+        int offset = (n + h) % 4;
+        skipBytes0(buf, offset != 0 ? n + 4 - offset : n);
+    }
+
+    static void skipStringVector(ByteBuf buf) {
+        skipVector0(buf, false, TlSerialUtil::skipString);
+    }
+
+    static void skipVector(ByteBuf buf) {
+        skipVector0(buf, false, TlSkipper::skip);
+    }
+
+    static void skipVector0(ByteBuf buf, boolean bare, int elementSize) {
+        int size = readVectorSize(buf, bare);
+        skipBytes0(buf, Math.multiplyExact(size, elementSize));
+    }
+
+    static void skipVector0(ByteBuf buf, boolean bare, Consumer<? super ByteBuf> skipper) {
+        int size = readVectorSize(buf, bare);
+        for (int i = 0; i < size; i++) {
+            skipper.accept(buf);
+        }
+    }
+
+    // set while TlCodecs frames objects of stream, where readable bytes include incomplete
+    // and following objects, so vectors of unknown type are framed as vectors of boxed objects
+    static final ThreadLocal<Boolean> streamFraming = new ThreadLocal<>();
+
+    static void skipUnknownVector(ByteBuf buf) {
+        // vector id skipped.
+        int size = buf.readIntLE();
+        if (size < 0) {
+            throw new IllegalStateException("Incorrect vector size: " + size);
+        }
+
+        if (streamFraming.get() != null) {
+            skipBoxedVector(buf, size);
+            return;
+        }
+
+        // same heuristic as in deserializeUnknownVector()
+        if ((long) size * Long.BYTES == buf.readableBytes() || (long) size * Integer.BYTES == buf.readableBytes()) {
+            buf.skipBytes(buf.readableBytes());
+        } else {
+            for (int i = 0; i < size; i++) {
+                TlSkipper.skip(buf);
+            }
+        }
+    }
+
+    static void skipBoxedVector(ByteBuf buf, int size) {
+        // each boxed element has at least identifier
+        if ((long) size * Integer.BYTES > buf.readableBytes()) {
+            throw new Underflow(buf.readerIndex() + (long) size * Integer.BYTES);
+        }
+
+        for (int i = 0; i < size; i++) {
+            int identifier = buf.getIntLE(buf.readerIndex());
+            try {
+                TlSkipper.skip(buf);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalStateException("Vector of unknown type has element with incorrect identifier 0x"
+                        + Integer.toHexString(identifier) + ", vectors of primitives can't be framed in stream", e);
+            }
+        }
+    }
+
+    static void skipJsonNode(ByteBuf buf) {
+        int identifier = buf.readIntLE();
+        switch (identifier) {
+            case JSON_NULL_ID -> {}
+            case JSON_BOOL_ID -> buf.skipBytes(4);
+            case JSON_STRING_ID -> skipString(buf);
+            case JSON_NUMBER_ID -> buf.skipBytes(8);
+            case JSON_ARRAY_ID -> skipVector0(buf, false, TlSerialUtil::skipJsonNode);
+            case JSON_OBJECT_ID -> skipVector0(buf, false, b -> {
+                int pairId = b.readIntLE();
+                if (pairId != JSON_OBJECT_VALUE_ID) {
+                    throw new IllegalStateException("Incorrect json pair identifier: 0x" + Integer.toHexString(pairId));
+                }
+                skipString(b);
+                skipJsonNode(b);
+            });
+            default ->
+                    throw new IllegalArgumentException("Incorrect json node identifier: 0x" + Integer.toHexString(identifier));
+        }
+    }
+
+    // walk methods
+
+    static void walkIntVector(ByteBuf buf, String name, TlVisitor visitor) {
+        walkVector0(buf, false, name, visitor, b -> visitor.intField(null, b.readIntLE()));
+    }
+
+    static void walkLongVector(ByteBuf buf, String name, TlVisitor visitor) {
+        walkVector0(buf, false, name, visitor, b -> visitor.longField(null, b.readLongLE()));
+    }
+
+    static void walkStringVector(ByteBuf buf, String name, TlVisitor visitor) {
+        walkVector0(buf, false, name, visitor, b -> visitor.stringField(null, deserializeBytes(b)));
+    }
+
+    static void walkBytesVector(ByteBuf buf, String name, TlVisitor visitor) {
+        walkVector0(buf, false, name, visitor, b -> visitor.bytesField(null, deserializeBytes(b)));
+    }
+
+    static void walkVector(ByteBuf buf, String name, TlVisitor visitor) {
+        walkVector0(buf, false, name, visitor, b -> TlWalker.walk(b, null, visitor));
+    }
+
+    static void walkVector0(ByteBuf buf, boolean bare, @Nullable String name,
+                            TlVisitor visitor, Consumer<? super ByteBuf> walker) {
+        int size = readVectorSize(buf, bare);
+        visitor.beginVector(name, size);
+        for (int i = 0; i < size; i++) {
+            walker.accept(buf);
+        }
+        visitor.endVector();
+    }
+
+    static void walkUnknownVector(ByteBuf buf, @Nullable String name, TlVisitor visitor) {
+        // vector id skipped.
+        int size = buf.readIntLE();
+        if (size < 0) {
+            throw new IllegalStateException("Incorrect vector size: " + size);
+        }
+
+        // same heuristic as in deserializeUnknownVector()
+        boolean longVec = (long) size * Long.BYTES == buf.readableBytes();
+        boolean intVec = (long) size * Integer.BYTES == buf.readableBytes();
+
+        visitor.beginVector(name, size);
+        for (int i = 0; i < size; i++) {
+            if (longVec) {
+                visitor.longField(null, buf.readLongLE());
+            } else if (intVec) {
+                visitor.intField(null, buf.readIntLE());
+            } else {
+                TlWalker.walk(buf, null, visitor);
+            }
+        }
+        visitor.endVector();
+    }
+
     static List<Object> deserializeUnknownVector(ByteBuf buf) {
         // vector id skipped.
         int size = buf.readIntLE();
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2023 Telegram4J
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package telegram4j.tl;
+
+/**
+ * Open-addressing hash table from constructor identifier to serialized size of objects
+ * with fixed size. Table has power of two capacity and at least half of slots are free,
+ * so lookups rarely probe more than one slot.
+ */
+final class TlSizeTable {
+
+    private final int[] keys;
+    private final int[] values;
+    private final int mask;
+    private final int shift;
+
+    /**
+     * Creates table from pairs of identifiers and sizes.
+     *
+     * @param pairs The array of identifier and size pairs.
+     */
+    TlSizeTable(int[] pairs) {
+        int count = pairs.length / 2;
+        int capacity = Integer.highestOneBit(Math.max(count, 1) * 2 - 1) << 1;
+        keys = new int[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        shift = Integer.numberOfLeadingZeros(mask);
+        // size of any TL object is at least 4 bytes, so 0 marks free slot
+        for (int i = 0; i < pairs.length; i += 2) {
+            int slot = slot(pairs[i]);
+            while (values[slot] != 0) {
+                slot = slot + 1 & mask;
+            }
+            keys[slot] = pairs[i];
+            values[slot] = pairs[i + 1];
+        }
+    }
+
+    /**
+     * Gets size of objects with specified identifier.
+     *
+     * @param identifier The identifier of constructor.
+     * @return The size of objects, or {@code -1} if constructor hasn't fixed size.
+     */
+    int get(int identifier) {
+        int slot = slot(identifier);
+        int value;
+        while ((value = values[slot]) != 0) {
+            if (keys[slot] == identifier) {
+                return value;
+            }
+            slot = slot + 1 & mask;
+        }
+        return -1;
+    }
+
+    private int slot(int identifier) {
+        // Fibonacci hashing, the high bits of product are mixed from all bits of identifier
+        return (identifier * 0x9e3779b9) >>> shift;
+    }
+}
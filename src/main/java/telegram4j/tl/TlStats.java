@@ -0,0 +1,490 @@
+/*
+ * Copyright 2023 Telegram4J
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package telegram4j.tl;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import reactor.core.publisher.Flux;
+import reactor.util.annotation.Nullable;
+import telegram4j.tl.api.TlInstrumentation;
+import telegram4j.tl.api.TlObject;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Built-in {@link TlInstrumentation} which collects per-constructor traffic statistics:
+ * counts and sizes of encoded and decoded objects, distributions of their sizes and latencies,
+ * gzip compression ratio and allocation sizes. Counters are lock-free and striped,
+ * distributions are log-linear histograms with relative error less than 12.5%.
+ *
+ * <p>Statistics are collected only by installed instance, which can be registered with
+ * {@code telegram4j.tl.TlStats} line in {@code META-INF/services/telegram4j.tl.api.TlInstrumentation}
+ * file and then obtained by {@link #installed()}.
+ */
+public final class TlStats implements TlInstrumentation {
+
+    private final CountersTable counters = new CountersTable();
+    private final CompressionCounters compression = new CompressionCounters();
+    private final CompressionCounters decompression = new CompressionCounters();
+    private final LongAdder allocations = new LongAdder();
+    private final LongAdder allocatedBytes = new LongAdder();
+
+    @Nullable
+    private volatile Sampling sampling;
+
+    /** Constructs empty statistics, which is used by {@link java.util.ServiceLoader}. */
+    public TlStats() {
+    }
+
+    /**
+     * Gets statistics which is installed as instrumentation of codecs.
+     *
+     * @return The installed statistics, or {@code null} if other or none instrumentation is installed.
+     */
+    @Nullable
+    public static TlStats installed() {
+        return Instrumentation.INSTANCE instanceof TlStats s ? s : null;
+    }
+
+    /**
+     * Enables sampling of serialized objects, which passes copy of each N-th
+     * encoded or decoded object on average to the sampler, e.g. for offline replay.
+     *
+     * @throws IllegalArgumentException if {@code rate} is not positive.
+     * @param rate The average count of objects per one sample.
+     * @param sampler The consumer of samples.
+     */
+    public void enableSampling(int rate, Sampler sampler) {
+        if (rate <= 0) {
+            throw new IllegalArgumentException("Sample rate must be positive: " + rate);
+        }
+        sampling = new Sampling(rate, Objects.requireNonNull(sampler));
+    }
+
+    /** Disables sampling of serialized objects. */
+    public void disableSampling() {
+        sampling = null;
+    }
+
+    /**
+     * Creates snapshot of current statistics.
+     *
+     * @return The snapshot of statistics.
+     */
+    public Snapshot snapshot() {
+        return snapshot(false);
+    }
+
+    /**
+     * Creates snapshot of current statistics and resets them, so the next snapshot
+     * contains statistics only of following calls. Calls concurrent with reset
+     * may be partially counted in both snapshots.
+     *
+     * @return The snapshot of statistics.
+     */
+    public Snapshot snapshotAndReset() {
+        return snapshot(true);
+    }
+
+    /**
+     * Creates {@link Flux} which emits snapshots with statistics of each period.
+     * Statistics are reset on each emission.
+     *
+     * @param period The period between snapshots.
+     * @return A {@link Flux} emitting snapshots of statistics.
+     */
+    public Flux<Snapshot> snapshots(Duration period) {
+        return Flux.interval(period).map(tick -> snapshotAndReset());
+    }
+
+    @Override
+    public void onEncode(int identifier, int bytes, long nanos) {
+        counters(identifier).encoded.record(bytes, nanos);
+    }
+
+    @Override
+    public void onDecode(int identifier, int bytes, long nanos) {
+        counters(identifier).decoded.record(bytes, nanos);
+    }
+
+    @Override
+    public void onCompress(int bytes, int compressedBytes, long nanos) {
+        compression.record(bytes, compressedBytes, nanos);
+    }
+
+    @Override
+    public void onDecompress(int compressedBytes, int bytes, long nanos) {
+        decompression.record(bytes, compressedBytes, nanos);
+    }
+
+    @Override
+    public void onAllocate(int capacity) {
+        allocations.increment();
+        allocatedBytes.add(capacity);
+    }
+
+    @Override
+    public boolean sample(int identifier) {
+        Sampling sampling = this.sampling;
+        return sampling != null && (sampling.rate == 1 || ThreadLocalRandom.current().nextInt(sampling.rate) == 0);
+    }
+
+    @Override
+    public void onSample(int identifier, ByteBuf payload) {
+        Sampling sampling = this.sampling;
+        if (sampling != null) {
+            sampling.sampler.accept(identifier, ByteBufUtil.getBytes(payload));
+        }
+    }
+
+    private Counters counters(int identifier) {
+        Counters c = counters.get(identifier);
+        if (c == null) {
+            c = counters.computeIfAbsent(identifier);
+        }
+        return c;
+    }
+
+    private Snapshot snapshot(boolean reset) {
+        Map<Integer, ConstructorStats> constructors = new HashMap<>();
+        var table = counters.table;
+        for (int i = 0; i < table.length(); i++) {
+            Counters c = table.get(i);
+            if (c == null) {
+                continue;
+            }
+
+            var stats = new ConstructorStats(c.identifier, c.type,
+                    c.encoded.snapshot(reset), c.decoded.snapshot(reset));
+            if (stats.encoded.count != 0 || stats.decoded.count != 0) {
+                constructors.put(c.identifier, stats);
+            }
+        }
+
+        return new Snapshot(Map.copyOf(constructors), compression.snapshot(reset), decompression.snapshot(reset),
+                reset ? allocations.sumThenReset() : allocations.sum(),
+                reset ? allocatedBytes.sumThenReset() : allocatedBytes.sum());
+    }
+
+    /** Consumer of sampled objects. */
+    @FunctionalInterface
+    public interface Sampler {
+
+        /**
+         * Accepts sampled object.
+         *
+         * @param identifier The identifier of object constructor.
+         * @param payload The copy of serialized object.
+         */
+        void accept(int identifier, byte[] payload);
+    }
+
+    /**
+     * Snapshot of statistics.
+     *
+     * @param constructors The map of statistics by identifiers of encountered constructors.
+     * @param compression The statistics of gzip compression.
+     * @param decompression The statistics of gzip decompression.
+     * @param allocations The count of buffers allocated by codecs.
+     * @param allocatedBytes The total initial capacity of buffers allocated by codecs.
+     */
+    public record Snapshot(Map<Integer, ConstructorStats> constructors, Compression compression,
+                           Compression decompression, long allocations, long allocatedBytes) {}
+
+    /**
+     * Statistics of the constructor.
+     *
+     * @param identifier The identifier of constructor.
+     * @param type The type of constructor, or {@code null} if it's not an object, e.g. vector.
+     * @param encoded The statistics of encoded objects.
+     * @param decoded The statistics of decoded objects.
+     */
+    public record ConstructorStats(int identifier, @Nullable Class<? extends TlObject> type,
+                                   Traffic encoded, Traffic decoded) {}
+
+    /**
+     * Traffic statistics of the constructor objects.
+     *
+     * @param count The count of objects.
+     * @param bytes The total size of objects.
+     * @param sizes The distribution of object sizes in bytes.
+     * @param latencies The distribution of coding time in nanoseconds, including nested objects.
+     */
+    public record Traffic(long count, long bytes, Distribution sizes, Distribution latencies) {}
+
+    /**
+     * Statistics of gzip compression or decompression.
+     *
+     * @param count The count of compressed objects.
+     * @param bytes The total size of uncompressed objects.
+     * @param compressedBytes The total size of compressed objects.
+     * @param nanos The total time in nanoseconds.
+     */
+    public record Compression(long count, long bytes, long compressedBytes, long nanos) {
+
+        /**
+         * Computes ratio of uncompressed size to compressed size.
+         *
+         * @return The compression ratio, or {@code 0} if there are no compressed objects.
+         */
+        public double ratio() {
+            return compressedBytes != 0 ? (double) bytes / compressedBytes : 0;
+        }
+    }
+
+    /** Log-linear distribution of values. */
+    public static final class Distribution {
+        private final long[] counts;
+        private final long count;
+
+        Distribution(long[] counts) {
+            this.counts = counts;
+            long count = 0;
+            for (long c : counts) {
+                count += c;
+            }
+            this.count = count;
+        }
+
+        /**
+         * Gets count of values.
+         *
+         * @return The count of values.
+         */
+        public long count() {
+            return count;
+        }
+
+        /**
+         * Gets approximate value at the specified percentile.
+         *
+         * @throws IllegalArgumentException if {@code percentile} is out of range.
+         * @param percentile The percentile from {@code 0} to {@code 100}.
+         * @return The lower bound of values at the percentile, or {@code 0} if there are no values.
+         */
+        public long valueAtPercentile(double percentile) {
+            if (percentile < 0 || percentile > 100) {
+                throw new IllegalArgumentException("Percentile must be in range [0, 100]: " + percentile);
+            }
+
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Histogram.lowerBound(i);
+                }
+            }
+            return 0;
+        }
+
+        /**
+         * Gets approximate maximal value.
+         *
+         * @return The lower bound of maximal value, or {@code 0} if there are no values.
+         */
+        public long max() {
+            for (int i = counts.length - 1; i >= 0; i--) {
+                if (counts[i] != 0) {
+                    return Histogram.lowerBound(i);
+                }
+            }
+            return 0;
+        }
+
+        @Override
+        public String toString() {
+            return "Distribution{count=" + count + ", p50=" + valueAtPercentile(50) +
+                    ", p99=" + valueAtPercentile(99) + ", max=" + max() + '}';
+        }
+    }
+
+    static final class Histogram {
+        // values less than 2^SUB_BITS are counted exactly, other ones
+        // are grouped by power of two and then by SUB_BITS high bits
+        static final int SUB_BITS = 3;
+        static final int SUB_COUNT = 1 << SUB_BITS;
+        static final int BUCKETS = (Long.SIZE - SUB_BITS) * SUB_COUNT;
+
+        final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+        void record(long value) {
+            counts.incrementAndGet(index(value));
+        }
+
+        Distribution snapshot(boolean reset) {
+            long[] copy = new long[BUCKETS];
+            for (int i = 0; i < BUCKETS; i++) {
+                copy[i] = reset ? counts.getAndSet(i, 0) : counts.get(i);
+            }
+            return new Distribution(copy);
+        }
+
+        static int index(long value) {
+            if (value < SUB_COUNT) {
+                return (int) Math.max(value, 0);
+            }
+            int exp = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+            int sub = (int) (value >>> exp - SUB_BITS) & SUB_COUNT - 1;
+            return (exp - SUB_BITS + 1) * SUB_COUNT + sub;
+        }
+
+        static long lowerBound(int index) {
+            if (index < SUB_COUNT) {
+                return index;
+            }
+            int exp = index / SUB_COUNT + SUB_BITS - 1;
+            return 1L << exp | (long) (index % SUB_COUNT) << exp - SUB_BITS;
+        }
+    }
+
+    static final class TrafficCounters {
+        final LongAdder count = new LongAdder();
+        final LongAdder bytes = new LongAdder();
+        final Histogram sizes = new Histogram();
+        final Histogram latencies = new Histogram();
+
+        void record(int size, long nanos) {
+            count.increment();
+            bytes.add(size);
+            sizes.record(size);
+            latencies.record(nanos);
+        }
+
+        Traffic snapshot(boolean reset) {
+            return new Traffic(reset ? count.sumThenReset() : count.sum(),
+                    reset ? bytes.sumThenReset() : bytes.sum(),
+                    sizes.snapshot(reset), latencies.snapshot(reset));
+        }
+    }
+
+    static final class CompressionCounters {
+        final LongAdder count = new LongAdder();
+        final LongAdder bytes = new LongAdder();
+        final LongAdder compressedBytes = new LongAdder();
+        final LongAdder nanos = new LongAdder();
+
+        void record(int size, int compressedSize, long time) {
+            count.increment();
+            bytes.add(size);
+            compressedBytes.add(compressedSize);
+            nanos.add(time);
+        }
+
+        Compression snapshot(boolean reset) {
+            return reset
+                    ? new Compression(count.sumThenReset(), bytes.sumThenReset(),
+                            compressedBytes.sumThenReset(), nanos.sumThenReset())
+                    : new Compression(count.sum(), bytes.sum(), compressedBytes.sum(), nanos.sum());
+        }
+    }
+
+    static final class Counters {
+        final int identifier;
+        @Nullable
+        final Class<? extends TlObject> type;
+        final TrafficCounters encoded = new TrafficCounters();
+        final TrafficCounters decoded = new TrafficCounters();
+
+        Counters(int identifier) {
+            this.identifier = identifier;
+            this.type = typeOf(identifier);
+        }
+
+        @Nullable
+        static Class<? extends TlObject> typeOf(int identifier) {
+            try {
+                return TlInfo.typeOf(identifier);
+            } catch (IllegalArgumentException e) { // vectors and booleans
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Open-addressing hash table from constructor identifier to its counters, which avoids
+     * boxing of identifiers on lookups. Lookups are lock-free, insertions are synchronized,
+     * because each identifier is inserted only once. Table is replaced by twice larger copy
+     * when half of slots are used, so readers always see complete table.
+     */
+    static final class CountersTable {
+        static final int INITIAL_CAPACITY = 256;
+
+        volatile AtomicReferenceArray<Counters> table = new AtomicReferenceArray<>(INITIAL_CAPACITY);
+        int size;
+
+        @Nullable
+        Counters get(int identifier) {
+            var table = this.table;
+            int mask = table.length() - 1;
+            int slot = slot(identifier, mask);
+            Counters c;
+            while ((c = table.get(slot)) != null) {
+                if (c.identifier == identifier) {
+                    return c;
+                }
+                slot = slot + 1 & mask;
+            }
+            return null;
+        }
+
+        synchronized Counters computeIfAbsent(int identifier) {
+            Counters c = get(identifier);
+            if (c != null) {
+                return c;
+            }
+
+            var table = this.table;
+            if (++size > table.length() / 2) {
+                var copy = new AtomicReferenceArray<Counters>(table.length() * 2);
+                for (int i = 0; i < table.length(); i++) {
+                    Counters e = table.get(i);
+                    if (e != null) {
+                        insert(copy, e);
+                    }
+                }
+                this.table = table = copy;
+            }
+
+            c = new Counters(identifier);
+            insert(table, c);
+            return c;
+        }
+
+        static void insert(AtomicReferenceArray<Counters> table, Counters c) {
+            int mask = table.length() - 1;
+            int slot = slot(c.identifier, mask);
+            while (table.get(slot) != null) {
+                slot = slot + 1 & mask;
+            }
+            table.set(slot, c);
+        }
+
+        static int slot(int identifier, int mask) {
+            // Fibonacci hashing as in TlSizeTable, the high bits of product are mixed from all bits of identifier
+            return (identifier * 0x9e3779b9) >>> Integer.numberOfLeadingZeros(mask);
+        }
+    }
+
+    record Sampling(int rate, Sampler sampler) {}
+}
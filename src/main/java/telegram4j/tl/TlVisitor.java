@@ -0,0 +1,123 @@
+/*
+ * Copyright 2023 Telegram4J
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package telegram4j.tl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.netty.buffer.ByteBuf;
+import reactor.util.annotation.Nullable;
+
+/**
+ * Visitor of serialized TL objects, driven by {@code TlWalker.walk(ByteBuf, TlVisitor)}.
+ *
+ * <p>Fields are named as properties of the {@link telegram4j.tl.json.TlModule JSON form}
+ * and are visited in order of the constructor parameters. Values without a name
+ * are the root value or elements of vectors. Bit flags are not visited, they are available
+ * through the value of bit set field, absent optional fields are not visited too.
+ *
+ * <p>Buffers passed to the callbacks are slices of the payload and
+ * valid only while the payload isn't released.
+ */
+public interface TlVisitor {
+
+    /**
+     * Called before the fields of object.
+     *
+     * @param name The name of field, or {@code null} if object isn't a field.
+     * @param identifier The identifier of object constructor.
+     */
+    default void beginObject(@Nullable String name, int identifier) {
+    }
+
+    /** Called after the last field of object. */
+    default void endObject() {
+    }
+
+    /**
+     * Called before the elements of vector.
+     *
+     * @param name The name of field, or {@code null} if vector isn't a field.
+     * @param count The count of elements.
+     */
+    default void beginVector(@Nullable String name, int count) {
+    }
+
+    /** Called after the last element of vector. */
+    default void endVector() {
+    }
+
+    /**
+     * Visits {@code int} or {@code #} value.
+     *
+     * @param name The name of field, or {@code null} if value isn't a field.
+     * @param value The value.
+     */
+    default void intField(@Nullable String name, int value) {
+    }
+
+    /**
+     * Visits {@code long} value.
+     *
+     * @param name The name of field, or {@code null} if value isn't a field.
+     * @param value The value.
+     */
+    default void longField(@Nullable String name, long value) {
+    }
+
+    /**
+     * Visits {@code double} value.
+     *
+     * @param name The name of field, or {@code null} if value isn't a field.
+     * @param value The value.
+     */
+    default void doubleField(@Nullable String name, double value) {
+    }
+
+    /**
+     * Visits {@code Bool} value.
+     *
+     * @param name The name of field, or {@code null} if value isn't a field.
+     * @param value The value.
+     */
+    default void booleanField(@Nullable String name, boolean value) {
+    }
+
+    /**
+     * Visits {@code string} value.
+     *
+     * @param name The name of field, or {@code null} if value isn't a field.
+     * @param value The slice of UTF-8 encoded value.
+     */
+    default void stringField(@Nullable String name, ByteBuf value) {
+    }
+
+    /**
+     * Visits {@code bytes}, {@code int128} or {@code int256} value.
+     *
+     * @param name The name of field, or {@code null} if value isn't a field.
+     * @param value The slice of value.
+     */
+    default void bytesField(@Nullable String name, ByteBuf value) {
+    }
+
+    /**
+     * Visits {@code JSONValue} value.
+     *
+     * @param name The name of field, or {@code null} if value isn't a field.
+     * @param value The value.
+     */
+    default void jsonField(@Nullable String name, JsonNode value) {
+    }
+}
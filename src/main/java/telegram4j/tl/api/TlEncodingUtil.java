@@ -28,6 +28,8 @@ import java.util.stream.StreamSupport;
 /** Utility methods for encodings module. */
 public class TlEncodingUtil {
 
+    private static final Object[] EMPTY_OPTIONALS = new Object[0];
+
     private TlEncodingUtil() {}
 
     public static ByteBuf copyAsUnpooled(ByteBuf value) {
@@ -59,6 +61,10 @@ public class TlEncodingUtil {
         return !present && newValue == null || newValue != null && newValue.equals(value);
     }
 
+    public static Object[] newOptionals(int count) {
+        return count != 0 ? new Object[count] : EMPTY_OPTIONALS;
+    }
+
     @SuppressWarnings("unchecked")
     public static <T> List<T> copyList(Iterable<? extends T> values) {
         if (values instanceof Collection<?>) {
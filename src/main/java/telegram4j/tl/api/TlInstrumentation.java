@@ -0,0 +1,100 @@
+/*
+ * Copyright 2023 Telegram4J
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package telegram4j.tl.api;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Service interface for monitoring of the TL serialization. Implementation is discovered
+ * with {@link java.util.ServiceLoader} once on initialization of codecs, e.g. by
+ * {@code META-INF/services/telegram4j.tl.api.TlInstrumentation} file.
+ * If there is no implementation, calls to the instrumentation are eliminated by JIT.
+ *
+ * <p>Methods are called from threads which perform serialization, so
+ * implementations must be thread-safe and shouldn't block.
+ */
+public interface TlInstrumentation {
+
+    /**
+     * Called after serialization of object, including nested objects.
+     * Time of object includes time of its nested objects.
+     *
+     * @param identifier The identifier of object constructor.
+     * @param bytes The size of serialized object.
+     * @param nanos The time of serialization in nanoseconds.
+     */
+    default void onEncode(int identifier, int bytes, long nanos) {
+    }
+
+    /**
+     * Called after deserialization of object, including nested objects.
+     * Time of object includes time of its nested objects.
+     *
+     * @param identifier The identifier of object constructor.
+     * @param bytes The size of serialized object.
+     * @param nanos The time of deserialization in nanoseconds.
+     */
+    default void onDecode(int identifier, int bytes, long nanos) {
+    }
+
+    /**
+     * Called after gzip compression of serialized object.
+     *
+     * @param bytes The size of serialized object.
+     * @param compressedBytes The size of compressed object.
+     * @param nanos The time of compression in nanoseconds.
+     */
+    default void onCompress(int bytes, int compressedBytes, long nanos) {
+    }
+
+    /**
+     * Called after gzip decompression of serialized object.
+     *
+     * @param compressedBytes The size of compressed object.
+     * @param bytes The size of decompressed object.
+     * @param nanos The time of decompression in nanoseconds.
+     */
+    default void onDecompress(int compressedBytes, int bytes, long nanos) {
+    }
+
+    /**
+     * Checks whether serialized form of object should be passed to {@link #onSample(int, ByteBuf)}.
+     *
+     * @param identifier The identifier of object constructor.
+     * @return {@code true} if serialized object should be sampled.
+     */
+    default boolean sample(int identifier) {
+        return false;
+    }
+
+    /**
+     * Called after serialization or deserialization of object
+     * for which {@link #sample(int)} returned {@code true}.
+     *
+     * @param identifier The identifier of object constructor.
+     * @param payload The read-only view of serialized object, which is valid only during call.
+     */
+    default void onSample(int identifier, ByteBuf payload) {
+    }
+
+    /**
+     * Called on allocation of buffer by codecs.
+     *
+     * @param capacity The initial capacity of buffer.
+     */
+    default void onAllocate(int capacity) {
+    }
+}
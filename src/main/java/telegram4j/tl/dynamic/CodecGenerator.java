@@ -0,0 +1,324 @@
+/*
+ * Copyright 2023 Telegram4J
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package telegram4j.tl.dynamic;
+
+import io.netty.buffer.ByteBuf;
+
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.Path;
+import java.security.CodeSource;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Generator of {@link CompiledCodec} subclasses, which are rendered as source with
+ * method per layout, compiled in memory by the system Java compiler and defined as hidden classes.
+ */
+final class CodecGenerator {
+    static final String CLASS_NAME = "GeneratedCodec";
+    // the same as in generated TlDeserializer, methods with large switches aren't compiled by JIT
+    static final int GROUP_SIZE = 256;
+
+    private final Layout[] layouts;
+    private final StringBuilder methods = new StringBuilder();
+    private final StringBuilder helpers = new StringBuilder();
+    private int helperCount;
+
+    private CodecGenerator(Layout[] layouts) {
+        this.layouts = layouts;
+    }
+
+    static boolean isAvailable() {
+        return ToolProvider.getSystemJavaCompiler() != null;
+    }
+
+    static CompiledCodec generate(DynamicTlCodec codec, int[] ids, Layout[] layouts) {
+        byte[] bytes = compile(new CodecGenerator(layouts).render());
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(bytes, true);
+            MethodHandle constructor = lookup.findConstructor(lookup.lookupClass(), MethodType.methodType(
+                    void.class, DynamicTlCodec.class, int[].class, Layout[].class, boolean[].class));
+            return (CompiledCodec) constructor.invoke(codec, ids, layouts, (boolean[]) null);
+        } catch (Throwable t) {
+            throw new IllegalStateException("Failed to define generated codec", t);
+        }
+    }
+
+    String render() {
+        var source = new StringBuilder()
+                .append("package telegram4j.tl.dynamic;\n\n")
+                .append("import io.netty.buffer.ByteBuf;\n")
+                .append("import telegram4j.tl.TlSerialUtil;\n")
+                .append("import telegram4j.tl.api.TlEncodingUtil;\n\n")
+                .append("import java.util.List;\n\n")
+                .append("import static telegram4j.tl.TlInfo.BOOL_FALSE_ID;\n")
+                .append("import static telegram4j.tl.TlInfo.BOOL_TRUE_ID;\n")
+                .append("import static telegram4j.tl.TlInfo.VECTOR_ID;\n\n")
+                .append("final class ").append(CLASS_NAME).append(" extends CompiledCodec {\n\n")
+                .append('\t').append(CLASS_NAME).append("(DynamicTlCodec codec, int[] ids, Layout[] layouts, boolean[] shared) {\n")
+                .append("\t\tsuper(codec, ids, layouts, shared);\n")
+                .append("\t}\n\n")
+                .append("\t@Override\n")
+                .append("\tCompiledCodec withShared(boolean[] shared) {\n")
+                .append("\t\treturn new ").append(CLASS_NAME).append("(codec, ids, layouts, shared);\n")
+                .append("\t}\n");
+
+        renderDispatch(source, "DynamicTlObject", "decodeFields", "int index, ByteBuf buf", "buf", "d");
+        renderDispatch(source, "void", "encodeFields", "int index, ByteBuf buf, DynamicTlObject object", "buf, object", "e");
+
+        for (Layout layout : layouts) {
+            renderDecode(layout);
+            renderEncode(layout);
+        }
+
+        return source.append(methods)
+                .append(helpers)
+                .append("}\n")
+                .toString();
+    }
+
+    private void renderDispatch(StringBuilder source, String returnType, String name,
+                                String params, String args, String prefix) {
+        String ret = returnType.equals("void") ? "" : "return ";
+        String brk = returnType.equals("void") ? " break;" : "";
+        int groups = (layouts.length + GROUP_SIZE - 1) / GROUP_SIZE;
+
+        source.append("\n\t@Override\n\t").append(returnType).append(' ').append(name)
+                .append('(').append(params).append(") {\n")
+                .append("\t\tswitch (index / ").append(GROUP_SIZE).append(") {\n");
+        for (int g = 0; g < groups; g++) {
+            source.append("\t\t\tcase ").append(g).append(": ").append(ret)
+                    .append(name).append(g).append("(index, ").append(args).append(");").append(brk).append('\n');
+        }
+        source.append("\t\t\tdefault: throw new IllegalStateException(\"Unexpected layout index: \" + index);\n")
+                .append("\t\t}\n\t}\n");
+
+        for (int g = 0; g < groups; g++) {
+            source.append("\n\tprivate ").append(returnType).append(' ').append(name).append(g)
+                    .append('(').append(params).append(") {\n")
+                    .append("\t\tswitch (index) {\n");
+            for (int i = g * GROUP_SIZE, n = Math.min(layouts.length, i + GROUP_SIZE); i < n; i++) {
+                source.append("\t\t\tcase ").append(i).append(": ").append(ret)
+                        .append(prefix).append(i).append('(').append(args).append(");").append(brk).append('\n');
+            }
+            source.append("\t\t\tdefault: throw new IllegalStateException(\"Unexpected layout index: \" + index);\n")
+                    .append("\t\t}\n\t}\n");
+        }
+    }
+
+    private void renderDecode(Layout layout) {
+        Field[] fields = layout.fields;
+        var body = new StringBuilder()
+                .append("\t\tObject[] v = new Object[").append(fields.length).append("];\n");
+        for (int i = 0; i < fields.length; i++) {
+            Field field = fields[i];
+            if (field.code == Field.FLAGS) {
+                body.append("\t\tint f").append(i).append(" = buf.readIntLE();\n")
+                        .append("\t\tv[").append(i).append("] = f").append(i).append(";\n");
+            } else if (field.flagsIndex != -1) {
+                String present = "(f" + field.flagsIndex + " & 0x" + Integer.toHexString(field.mask) + ") != 0";
+                if (field.code == Field.TRUE) {
+                    body.append("\t\tv[").append(i).append("] = ").append(present).append(";\n");
+                } else {
+                    body.append("\t\tif (").append(present).append(") {\n")
+                            .append("\t\t\tv[").append(i).append("] = ").append(decodeExpr(field)).append(";\n")
+                            .append("\t\t}\n");
+                }
+            } else {
+                body.append("\t\tv[").append(i).append("] = ").append(decodeExpr(field)).append(";\n");
+            }
+        }
+
+        methods.append("\n\tprivate DynamicTlObject d").append(layout.index).append("(ByteBuf buf) {\n")
+                .append(body)
+                .append("\t\treturn new DynamicTlObject(layouts[").append(layout.index).append("], v);\n")
+                .append("\t}\n");
+    }
+
+    private void renderEncode(Layout layout) {
+        Field[] fields = layout.fields;
+        var body = new StringBuilder();
+        if (fields.length != 0) {
+            body.append("\t\tObject[] v = object.values;\n");
+        }
+        for (int i = 0; i < fields.length; i++) {
+            Field field = fields[i];
+            if (field.code == Field.FLAGS) {
+                String f = "f" + i;
+                body.append("\t\tint ").append(f).append(" = v[").append(i).append("] != null ? (Integer) v[")
+                        .append(i).append("] & ~0x").append(Integer.toHexString(field.mask)).append(" : 0;\n");
+                for (int j : field.dependents) {
+                    Field dependent = fields[j];
+                    String present = dependent.code == Field.TRUE
+                            ? "Boolean.TRUE.equals(v[" + j + "])"
+                            : "v[" + j + "] != null";
+                    body.append("\t\tif (").append(present).append(") {\n")
+                            .append("\t\t\t").append(f).append(" |= 0x").append(Integer.toHexString(dependent.mask)).append(";\n")
+                            .append("\t\t}\n");
+                }
+                body.append("\t\tbuf.writeIntLE(").append(f).append(");\n");
+            } else if (field.code == Field.TRUE) {
+                continue;
+            } else if (field.flagsIndex != -1) {
+                body.append("\t\tif (v[").append(i).append("] != null) {\n")
+                        .append("\t\t\t").append(encodeStmt(field, "v[" + i + "]")).append('\n')
+                        .append("\t\t}\n");
+            } else {
+                body.append("\t\t").append(encodeStmt(field, "require(object, " + i + ")")).append('\n');
+            }
+        }
+
+        methods.append("\n\tprivate void e").append(layout.index).append("(ByteBuf buf, DynamicTlObject object) {\n")
+                .append(body)
+                .append("\t}\n");
+    }
+
+    private String decodeExpr(Field field) {
+        return switch (field.code) {
+            case Field.INT -> "buf.readIntLE()";
+            case Field.LONG -> "buf.readLongLE()";
+            case Field.DOUBLE -> "buf.readDoubleLE()";
+            case Field.INT128 -> "TlEncodingUtil.copyAsUnpooled(buf.readSlice(16))";
+            case Field.INT256 -> "TlEncodingUtil.copyAsUnpooled(buf.readSlice(32))";
+            case Field.STRING -> "TlSerialUtil.deserializeString(buf)";
+            case Field.BYTES -> "TlEncodingUtil.copyAsUnpooled(TlSerialUtil.deserializeBytes(buf))";
+            case Field.BOOL -> "TlSerialUtil.deserializeBoolean(buf)";
+            case Field.TRUE -> "Boolean.TRUE";
+            case Field.OBJECT -> "decodeBoxed(buf)";
+            case Field.BARE -> "d" + field.bare.index + "(buf)";
+            case Field.VECTOR, Field.BARE_VECTOR -> {
+                String element = decodeExpr(field.element);
+                String name = "dv" + helperCount++;
+                helpers.append("\n\tprivate List<Object> ").append(name).append("(ByteBuf buf) {\n");
+                if (field.code == Field.VECTOR) {
+                    helpers.append("\t\treadVectorId(buf);\n");
+                }
+                helpers.append("\t\tint count = DynamicTlCodec.readCount(buf, ").append(field.element.minSize()).append(");\n")
+                        .append("\t\tObject[] values = new Object[count];\n")
+                        .append("\t\tfor (int i = 0; i < count; i++) {\n")
+                        .append("\t\t\tvalues[i] = ").append(element).append(";\n")
+                        .append("\t\t}\n")
+                        .append("\t\treturn List.of(values);\n")
+                        .append("\t}\n");
+                yield name + "(buf)";
+            }
+            default -> throw new IllegalStateException("Unexpected field code: " + field.code);
+        };
+    }
+
+    private String encodeStmt(Field field, String value) {
+        return switch (field.code) {
+            case Field.INT -> "buf.writeIntLE((Integer) " + value + ");";
+            case Field.LONG -> "buf.writeLongLE((Long) " + value + ");";
+            case Field.DOUBLE -> "buf.writeDoubleLE((Double) " + value + ");";
+            case Field.INT128 -> "writeIntN(buf, " + value + ", 16);";
+            case Field.INT256 -> "writeIntN(buf, " + value + ", 32);";
+            case Field.STRING -> "TlSerialUtil.serializeString(buf, (String) " + value + ");";
+            case Field.BYTES -> "TlSerialUtil.serializeBytes(buf, (ByteBuf) " + value + ");";
+            case Field.BOOL -> "buf.writeIntLE((Boolean) " + value + " ? BOOL_TRUE_ID : BOOL_FALSE_ID);";
+            case Field.OBJECT -> "encodeBoxed(buf, " + value + ");";
+            case Field.BARE -> "e" + field.bare.index + "(buf, bare(" + value + ", " + field.bare.index + "));";
+            case Field.VECTOR, Field.BARE_VECTOR -> {
+                String element = encodeStmt(field.element, "e");
+                String name = "ev" + helperCount++;
+                helpers.append("\n\tprivate void ").append(name).append("(ByteBuf buf, Object value) {\n")
+                        .append("\t\tList<?> list = (List<?>) value;\n");
+                if (field.code == Field.VECTOR) {
+                    helpers.append("\t\tbuf.writeIntLE(VECTOR_ID);\n");
+                }
+                helpers.append("\t\tbuf.writeIntLE(list.size());\n")
+                        .append("\t\tfor (Object e : list) {\n")
+                        .append("\t\t\t").append(element).append('\n')
+                        .append("\t\t}\n")
+                        .append("\t}\n");
+                yield name + "(buf, " + value + ");";
+            }
+            default -> throw new IllegalStateException("Unexpected field code: " + field.code);
+        };
+    }
+
+    static byte[] compile(String source) {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        var diagnostics = new DiagnosticCollector<JavaFileObject>();
+        var output = new ByteArrayOutputStream();
+        var sourceFile = new SimpleJavaFileObject(URI.create("string:///telegram4j/tl/dynamic/"
+                + CLASS_NAME + JavaFileObject.Kind.SOURCE.extension), JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return source;
+            }
+        };
+
+        var standard = compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8);
+        try (JavaFileManager fileManager = new ForwardingJavaFileManager<>(standard) {
+            @Override
+            public JavaFileObject getJavaFileForOutput(Location location, String className,
+                                                       JavaFileObject.Kind kind, FileObject sibling) {
+                return new SimpleJavaFileObject(URI.create("mem:///" + className.replace('.', '/')
+                        + kind.extension), kind) {
+                    @Override
+                    public OutputStream openOutputStream() {
+                        return output;
+                    }
+                };
+            }
+        }) {
+            var options = List.of("-classpath", classpath(), "-proc:none", "-g:none");
+            if (!compiler.getTask(null, fileManager, diagnostics, options, null, List.of(sourceFile)).call()) {
+                throw new IllegalStateException("Failed to compile generated codec: " + diagnostics.getDiagnostics());
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return output.toByteArray();
+    }
+
+    private static String classpath() {
+        return Stream.of(CompiledCodec.class, ByteBuf.class)
+                .map(c -> {
+                    CodeSource source = c.getProtectionDomain().getCodeSource();
+                    if (source == null || source.getLocation() == null) {
+                        throw new IllegalStateException("Location of " + c + " is unknown");
+                    }
+                    try {
+                        return Path.of(source.getLocation().toURI()).toString();
+                    } catch (URISyntaxException | FileSystemNotFoundException | IllegalArgumentException e) {
+                        throw new IllegalStateException("Location of " + c + " isn't in the file system: "
+                                + source.getLocation(), e);
+                    }
+                })
+                .collect(Collectors.joining(File.pathSeparator));
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2023 Telegram4J
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package telegram4j.tl.dynamic;
+
+import io.netty.buffer.ByteBuf;
+import reactor.util.annotation.Nullable;
+import telegram4j.tl.TlDeserializer;
+import telegram4j.tl.TlSerializer;
+import telegram4j.tl.api.TlObject;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static telegram4j.tl.TlInfo.BOOL_FALSE_ID;
+import static telegram4j.tl.TlInfo.BOOL_TRUE_ID;
+import static telegram4j.tl.TlInfo.VECTOR_ID;
+
+/**
+ * Base of codecs generated by {@link CodecGenerator}. Subclasses implement
+ * specialized methods for each layout, which are selected by position of layout in codec.
+ */
+abstract class CompiledCodec {
+    final DynamicTlCodec codec;
+    final int[] ids;
+    final Layout[] layouts;
+    @Nullable
+    final boolean[] shared;
+
+    protected CompiledCodec(DynamicTlCodec codec, int[] ids, Layout[] layouts, @Nullable boolean[] shared) {
+        this.codec = codec;
+        this.ids = ids;
+        this.layouts = layouts;
+        this.shared = shared;
+    }
+
+    abstract CompiledCodec withShared(boolean[] shared);
+
+    abstract DynamicTlObject decodeFields(int index, ByteBuf buf);
+
+    abstract void encodeFields(int index, ByteBuf buf, DynamicTlObject object);
+
+    final Object decodeBoxed(ByteBuf buf) {
+        int identifier = buf.readIntLE();
+        switch (identifier) {
+            case BOOL_TRUE_ID: return Boolean.TRUE;
+            case BOOL_FALSE_ID: return Boolean.FALSE;
+            case VECTOR_ID: {
+                int count = DynamicTlCodec.readCount(buf, 4);
+                Object[] values = new Object[count];
+                for (int i = 0; i < count; i++) {
+                    values[i] = decodeBoxed(buf);
+                }
+                return List.of(values);
+            }
+        }
+
+        int index = Arrays.binarySearch(ids, identifier);
+        if (index < 0) {
+            throw new IllegalArgumentException("Incorrect TlObject identifier: 0x" + Integer.toHexString(identifier));
+        }
+        if (shared != null && shared[index]) {
+            buf.readerIndex(buf.readerIndex() - 4);
+            return TlDeserializer.deserialize(buf);
+        }
+        return decodeFields(index, buf);
+    }
+
+    final void encodeBoxed(ByteBuf buf, Object value) {
+        if (value instanceof DynamicTlObject o) {
+            Layout layout = o.layout();
+            buf.writeIntLE(layout.identifier());
+            int index = layout.index;
+            if (index < layouts.length && layouts[index] == layout) {
+                encodeFields(index, buf, o);
+            } else { // object of other codec
+                codec.encodeFields(buf, o);
+            }
+        } else if (value instanceof Boolean b) {
+            buf.writeIntLE(b ? BOOL_TRUE_ID : BOOL_FALSE_ID);
+        } else if (value instanceof List<?> list) {
+            buf.writeIntLE(VECTOR_ID);
+            buf.writeIntLE(list.size());
+            for (Object o : list) {
+                encodeBoxed(buf, o);
+            }
+        } else if (value instanceof TlObject o) {
+            TlSerializer.serialize(buf, o);
+        } else {
+            throw new IllegalArgumentException("Incorrect TL serializable type: " + value + " (" + value.getClass() + ")");
+        }
+    }
+
+    // helpers of generated methods
+
+    static void readVectorId(ByteBuf buf) {
+        int identifier = buf.readIntLE();
+        if (identifier != VECTOR_ID) {
+            throw new IllegalArgumentException("Incorrect vector identifier: 0x" + Integer.toHexString(identifier));
+        }
+    }
+
+    static Object require(DynamicTlObject object, int index) {
+        Object value = object.values[index];
+        if (value == null) {
+            throw new IllegalArgumentException("Missing value of parameter '"
+                    + object.layout().fields[index].name + "' of " + object.layout().name());
+        }
+        return value;
+    }
+
+    static void writeIntN(ByteBuf buf, Object value, int size) {
+        ByteBuf b = (ByteBuf) value;
+        if (b.readableBytes() != size) {
+            throw new IllegalArgumentException("Incorrect size of int" + size * 8 + " value: "
+                    + b.readableBytes() + ", expected: " + size);
+        }
+        buf.writeBytes(b, b.readerIndex(), size);
+    }
+
+    final DynamicTlObject bare(Object value, int index) {
+        DynamicTlObject o = (DynamicTlObject) value;
+        if (!o.layout().equals(layouts[index])) {
+            throw new IllegalArgumentException("Incorrect bare object: " + o.layout().name()
+                    + ", expected: " + layouts[index].name());
+        }
+        return o;
+    }
+}
@@ -0,0 +1,541 @@
+/*
+ * Copyright 2023 Telegram4J
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package telegram4j.tl.dynamic;
+
+import io.netty.buffer.ByteBuf;
+import reactor.util.annotation.Nullable;
+import telegram4j.tl.TlDeserializer;
+import telegram4j.tl.TlSerialUtil;
+import telegram4j.tl.TlSerializer;
+import telegram4j.tl.api.TlEncodingUtil;
+import telegram4j.tl.api.TlObject;
+import telegram4j.tl.parser.TlTrees;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static telegram4j.tl.TlInfo.BOOL_FALSE_ID;
+import static telegram4j.tl.TlInfo.BOOL_TRUE_ID;
+import static telegram4j.tl.TlInfo.VECTOR_ID;
+
+/**
+ * Codec of TL objects driven by parsed scheme instead of the generated classes,
+ * which allows to work with layers newer than the generated ones.
+ *
+ * <p>Each constructor and method of scheme is compiled once to the {@link Layout} with
+ * sequence of field instructions, thus encoding and decoding don't use reflection and
+ * don't reparse types of parameters. Codec is immutable and thread-safe.
+ *
+ * <p>Codecs created by {@link #compile(TlTrees.Scheme...)} additionally have specialized
+ * classes, which are generated at runtime and don't dispatch on field instructions.
+ *
+ * <p>Vectors of primitives in parameters are handled, but bare vectors in the top level
+ * e.g. results of methods like {@code Vector<long>}, aren't distinguishable from vectors of
+ * objects, so they are decoded as vectors of boxed objects.
+ *
+ * @see DynamicTlObject
+ */
+public final class DynamicTlCodec {
+    private static final Field[] EMPTY_FIELDS = new Field[0];
+    private static final Map<List<TlTrees.Scheme>, DynamicTlCodec> COMPILED_CODECS = new ConcurrentHashMap<>();
+
+    @Nullable
+    private final String version;
+    // sorted by identifier
+    final int[] ids;
+    final Layout[] layouts;
+    private final Map<String, Layout> byName;
+    @Nullable
+    private final CompiledCodec compiled;
+    // constructors decoded by TlDeserializer, see LayerCodec
+    @Nullable
+    final boolean[] shared;
+
+    private DynamicTlCodec(@Nullable String version, int[] ids, Layout[] layouts, Map<String, Layout> byName,
+                           @Nullable CompiledCodec compiled, @Nullable boolean[] shared) {
+        this.version = version;
+        this.ids = ids;
+        this.layouts = layouts;
+        this.byName = byName;
+        this.compiled = compiled;
+        this.shared = shared;
+    }
+
+    /**
+     * Compiles layouts of all constructors and methods of specified schemes.
+     * If identifier is declared in several schemes, the first declaration is used.
+     *
+     * @throws IllegalArgumentException if scheme has malformed types of parameters
+     * or bare types which can't be resolved.
+     * @param schemes The schemes to compile, e.g. api and mtproto schemes.
+     * @return The new codec.
+     */
+    public static DynamicTlCodec create(TlTrees.Scheme... schemes) {
+        var byId = new HashMap<Integer, Layout>();
+        var byName = new HashMap<String, Layout>();
+        String version = null;
+        for (TlTrees.Scheme scheme : schemes) {
+            if (version == null) {
+                version = scheme.version();
+            }
+
+            // bare types are resolved within own scheme, e.g. %Message of mtproto
+            var compiled = new ArrayList<Layout>();
+            var schemeNames = new HashMap<String, Layout>();
+            var constructors = new HashMap<String, List<Layout>>();
+            for (TlTrees.Type type : scheme.constructors()) {
+                Layout layout = compile(type);
+                compiled.add(layout);
+                schemeNames.putIfAbsent(layout.name(), layout);
+                constructors.computeIfAbsent(layout.type(), k -> new ArrayList<>()).add(layout);
+            }
+            for (TlTrees.Type type : scheme.methods()) {
+                compiled.add(compile(type));
+            }
+
+            for (Layout layout : compiled) {
+                for (Field field : layout.fields) {
+                    resolve(field, schemeNames, constructors);
+                }
+                if (byId.putIfAbsent(layout.identifier(), layout) == null) {
+                    byName.putIfAbsent(layout.name(), layout);
+                }
+            }
+        }
+
+        Layout[] layouts = byId.values().toArray(new Layout[0]);
+        Arrays.sort(layouts, Comparator.comparingInt(Layout::identifier));
+        int[] ids = new int[layouts.length];
+        for (int i = 0; i < layouts.length; i++) {
+            ids[i] = layouts[i].identifier();
+            layouts[i].index = i;
+        }
+
+        return new DynamicTlCodec(version, ids, layouts, Map.copyOf(byName), null, null);
+    }
+
+    /**
+     * Compiles layouts of specified schemes like {@link #create(TlTrees.Scheme...)} and generates
+     * specialized codec classes, which are defined as hidden classes. Generation takes several seconds
+     * for the whole api scheme, so it should be done outside of latency-sensitive code.
+     * Codecs are cached by schemes, i.e. per layer, and the subsequent calls with equal schemes
+     * return the same codec. Generation isn't done under lock, thus concurrent first calls
+     * may generate classes several times, but they also return the same codec.
+     *
+     * <p>Generation requires the system Java compiler, i.e. {@code java.compiler} module and JDK,
+     * and classes of this library and Netty in the file system. If generation is impossible or fails,
+     * codec interprets layouts like the one returned by {@link #create(TlTrees.Scheme...)},
+     * which can be checked by {@link #isCompiled()}.
+     *
+     * @throws IllegalArgumentException if scheme has malformed types of parameters
+     * or bare types which can't be resolved.
+     * @param schemes The schemes to compile, e.g. api and mtproto schemes.
+     * @return The compiled codec.
+     */
+    public static DynamicTlCodec compile(TlTrees.Scheme... schemes) {
+        List<TlTrees.Scheme> key = List.of(schemes);
+        DynamicTlCodec result = COMPILED_CODECS.get(key);
+        if (result != null) {
+            return result;
+        }
+
+        result = create(schemes);
+        if (isCompilerAvailable()) {
+            try {
+                CompiledCodec compiled = CodecGenerator.generate(result, result.ids, result.layouts);
+                result = new DynamicTlCodec(result.version, result.ids, result.layouts, result.byName, compiled, null);
+            } catch (VirtualMachineError e) {
+                throw e;
+            } catch (Throwable t) {
+                // e.g. classes are in jlink image or in nested jar, interpreting codec is still usable
+            }
+        }
+
+        DynamicTlCodec existing = COMPILED_CODECS.putIfAbsent(key, result);
+        return existing != null ? existing : result;
+    }
+
+    private static boolean isCompilerAvailable() {
+        Module module = DynamicTlCodec.class.getModule();
+        return ModuleLayer.boot().findModule("java.compiler")
+                .map(m -> !module.isNamed() || module.canRead(m))
+                .orElse(false) && CodecGenerator.isAvailable();
+    }
+
+    DynamicTlCodec withShared(boolean[] shared) {
+        return new DynamicTlCodec(version, ids, layouts, byName,
+                compiled != null ? compiled.withShared(shared) : null, shared);
+    }
+
+    /**
+     * Gets whether codec uses generated classes instead of interpretation of layouts.
+     *
+     * @return {@code true} if codec uses generated classes.
+     */
+    public boolean isCompiled() {
+        return compiled != null;
+    }
+
+    /**
+     * Gets version of the first scheme, i.e. layer of api.
+     *
+     * @return The version of scheme, or {@code null} if absent.
+     */
+    @Nullable
+    public String version() {
+        return version;
+    }
+
+    /**
+     * Finds layout of constructor or method with specified identifier.
+     *
+     * @param identifier The identifier of constructor or method.
+     * @return The layout, or {@code null} if absent.
+     */
+    @Nullable
+    public Layout layout(int identifier) {
+        int i = Arrays.binarySearch(ids, identifier);
+        return i >= 0 ? layouts[i] : null;
+    }
+
+    /**
+     * Finds layout of constructor or method with specified name, e.g. {@code messages.sendMessage}.
+     * If name is declared in several schemes, the layout of the first scheme is returned.
+     *
+     * @param name The name of constructor or method.
+     * @return The layout, or {@code null} if absent.
+     */
+    @Nullable
+    public Layout layout(String name) {
+        return byName.get(name);
+    }
+
+    /**
+     * Decodes boxed value from the buffer. {@code Bool} values are decoded to {@code Boolean},
+     * vectors to {@code List} and other objects to {@link DynamicTlObject}.
+     *
+     * @throws IllegalArgumentException if buffer contains unknown identifier or incorrect size of vector.
+     * @param <T> The type of value.
+     * @param buf The buffer to read.
+     * @return The decoded value.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T decode(ByteBuf buf) {
+        return (T) (compiled != null ? compiled.decodeBoxed(buf) : decodeBoxed(buf));
+    }
+
+    /**
+     * Encodes value to the buffer. Flags fields of {@link DynamicTlObject objects} are computed
+     * from the presence of conditional parameters, while unused bits of stored flags are kept.
+     *
+     * @throws IllegalArgumentException if value or one of parameters has incorrect type.
+     * @param buf The buffer to write.
+     * @param value The value to encode, {@link DynamicTlObject}, {@code Boolean}, {@code List} or generated object.
+     */
+    public void encode(ByteBuf buf, Object value) {
+        Objects.requireNonNull(value);
+        if (compiled != null) {
+            compiled.encodeBoxed(buf, value);
+        } else {
+            encodeBoxed(buf, value);
+        }
+    }
+
+    private Object decodeBoxed(ByteBuf buf) {
+        int identifier = buf.readIntLE();
+        switch (identifier) {
+            case BOOL_TRUE_ID: return Boolean.TRUE;
+            case BOOL_FALSE_ID: return Boolean.FALSE;
+            case VECTOR_ID: {
+                int count = readCount(buf, 4);
+                Object[] values = new Object[count];
+                for (int i = 0; i < count; i++) {
+                    values[i] = decodeBoxed(buf);
+                }
+                return List.of(values);
+            }
+        }
+
+        int index = Arrays.binarySearch(ids, identifier);
+        if (index < 0) {
+            throw new IllegalArgumentException("Incorrect TlObject identifier: 0x" + Integer.toHexString(identifier));
+        }
+        if (shared != null && shared[index]) {
+            buf.readerIndex(buf.readerIndex() - 4);
+            return TlDeserializer.deserialize(buf);
+        }
+        return decodeFields(buf, layouts[index]);
+    }
+
+    private DynamicTlObject decodeFields(ByteBuf buf, Layout layout) {
+        Field[] fields = layout.fields;
+        Object[] values = new Object[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            Field field = fields[i];
+            if (field.flagsIndex != -1) {
+                int flags = (Integer) values[field.flagsIndex];
+                boolean present = (flags & field.mask) != 0;
+                if (field.code == Field.TRUE) {
+                    values[i] = present;
+                    continue;
+                } else if (!present) {
+                    continue;
+                }
+            }
+            values[i] = decodeValue(buf, field);
+        }
+        return new DynamicTlObject(layout, values);
+    }
+
+    private Object decodeValue(ByteBuf buf, Field field) {
+        return switch (field.code) {
+            case Field.INT, Field.FLAGS -> buf.readIntLE();
+            case Field.LONG -> buf.readLongLE();
+            case Field.DOUBLE -> buf.readDoubleLE();
+            case Field.INT128 -> TlEncodingUtil.copyAsUnpooled(buf.readSlice(16));
+            case Field.INT256 -> TlEncodingUtil.copyAsUnpooled(buf.readSlice(32));
+            case Field.STRING -> TlSerialUtil.deserializeString(buf);
+            case Field.BYTES -> TlEncodingUtil.copyAsUnpooled(TlSerialUtil.deserializeBytes(buf));
+            case Field.BOOL -> TlSerialUtil.deserializeBoolean(buf);
+            case Field.TRUE -> Boolean.TRUE;
+            case Field.OBJECT -> decodeBoxed(buf);
+            case Field.BARE -> decodeFields(buf, field.bare);
+            case Field.VECTOR, Field.BARE_VECTOR -> {
+                if (field.code == Field.VECTOR) {
+                    int identifier = buf.readIntLE();
+                    if (identifier != VECTOR_ID) {
+                        throw new IllegalArgumentException("Incorrect vector identifier: 0x" + Integer.toHexString(identifier));
+                    }
+                }
+                int count = readCount(buf, field.element.minSize());
+                Object[] values = new Object[count];
+                for (int i = 0; i < count; i++) {
+                    values[i] = decodeValue(buf, field.element);
+                }
+                yield List.of(values);
+            }
+            default -> throw new IllegalStateException("Unexpected field code: " + field.code);
+        };
+    }
+
+    // validates size of vector before allocation of its elements
+    static int readCount(ByteBuf buf, int minElementSize) {
+        int count = buf.readIntLE();
+        if (count < 0 || count > buf.readableBytes() / Math.max(minElementSize, 1)) {
+            throw new IllegalArgumentException("Incorrect vector size: " + count
+                    + ", readable bytes: " + buf.readableBytes());
+        }
+        return count;
+    }
+
+    private void encodeBoxed(ByteBuf buf, Object value) {
+        if (value instanceof DynamicTlObject o) {
+            buf.writeIntLE(o.identifier());
+            encodeFields(buf, o);
+        } else if (value instanceof Boolean b) {
+            buf.writeIntLE(b ? BOOL_TRUE_ID : BOOL_FALSE_ID);
+        } else if (value instanceof List<?> list) {
+            buf.writeIntLE(VECTOR_ID);
+            buf.writeIntLE(list.size());
+            for (Object o : list) {
+                encodeBoxed(buf, o);
+            }
+        } else if (value instanceof TlObject o) {
+            TlSerializer.serialize(buf, o);
+        } else {
+            throw new IllegalArgumentException("Incorrect TL serializable type: " + value + " (" + value.getClass() + ")");
+        }
+    }
+
+    void encodeFields(ByteBuf buf, DynamicTlObject object) {
+        Field[] fields = object.layout().fields;
+        for (int i = 0; i < fields.length; i++) {
+            Field field = fields[i];
+            Object value = object.get(i);
+            if (field.code == Field.FLAGS) {
+                int flags = value != null ? (Integer) value & ~field.mask : 0;
+                for (int j : field.dependents) {
+                    Field dependent = fields[j];
+                    Object v = object.get(j);
+                    if (dependent.code == Field.TRUE ? Boolean.TRUE.equals(v) : v != null) {
+                        flags |= dependent.mask;
+                    }
+                }
+                buf.writeIntLE(flags);
+            } else if (field.code != Field.TRUE && (field.flagsIndex == -1 || value != null)) {
+                if (value == null) {
+                    throw new IllegalArgumentException("Missing value of parameter '" + field.name
+                            + "' of " + object.layout().name());
+                }
+                encodeValue(buf, field, value);
+            }
+        }
+    }
+
+    private void encodeValue(ByteBuf buf, Field field, Object value) {
+        switch (field.code) {
+            case Field.INT -> buf.writeIntLE((Integer) value);
+            case Field.LONG -> buf.writeLongLE((Long) value);
+            case Field.DOUBLE -> buf.writeDoubleLE((Double) value);
+            case Field.INT128, Field.INT256 -> {
+                ByteBuf b = (ByteBuf) value;
+                int size = field.code == Field.INT128 ? 16 : 32;
+                if (b.readableBytes() != size) {
+                    throw new IllegalArgumentException("Incorrect size of parameter '" + field.name
+                            + "': " + b.readableBytes() + ", expected: " + size);
+                }
+                buf.writeBytes(b, b.readerIndex(), size);
+            }
+            case Field.STRING -> TlSerialUtil.serializeString(buf, (String) value);
+            case Field.BYTES -> TlSerialUtil.serializeBytes(buf, (ByteBuf) value);
+            case Field.BOOL -> buf.writeIntLE((Boolean) value ? BOOL_TRUE_ID : BOOL_FALSE_ID);
+            case Field.OBJECT -> encodeBoxed(buf, value);
+            case Field.BARE -> {
+                DynamicTlObject o = (DynamicTlObject) value;
+                if (!o.layout().equals(field.bare)) {
+                    throw new IllegalArgumentException("Incorrect bare object of parameter '" + field.name
+                            + "': " + o.layout().name() + ", expected: " + field.bare.name());
+                }
+                encodeFields(buf, o);
+            }
+            case Field.VECTOR, Field.BARE_VECTOR -> {
+                List<?> list = (List<?>) value;
+                if (field.code == Field.VECTOR) {
+                    buf.writeIntLE(VECTOR_ID);
+                }
+                buf.writeIntLE(list.size());
+                for (Object o : list) {
+                    encodeValue(buf, field.element, o);
+                }
+            }
+            default -> throw new IllegalStateException("Unexpected field code: " + field.code);
+        }
+    }
+
+    // compilation
+
+    static Layout compile(TlTrees.Type type) {
+        var parameters = type.parameters();
+        Field[] fields = parameters.isEmpty() ? EMPTY_FIELDS : new Field[parameters.size()];
+        var flagsFields = new HashMap<String, Integer>();
+        var dependents = new HashMap<Integer, List<Integer>>();
+        for (int i = 0; i < fields.length; i++) {
+            TlTrees.Parameter param = parameters.get(i);
+            String paramType = param.type();
+
+            int flagsIndex = -1;
+            int mask = 0;
+            int q = paramType.indexOf('?');
+            if (q != -1) {
+                int dot = paramType.indexOf('.');
+                Integer idx = dot != -1 && dot < q ? flagsFields.get(paramType.substring(0, dot)) : null;
+                if (idx == null) {
+                    throw new IllegalArgumentException("Incorrect conditional type of parameter '"
+                            + param.name() + "' of " + type.name() + ": '" + paramType + "'");
+                }
+                flagsIndex = idx;
+                mask = 1 << Integer.parseInt(paramType, dot + 1, q, 10);
+                paramType = paramType.substring(q + 1);
+                dependents.computeIfAbsent(flagsIndex, k -> new ArrayList<>()).add(i);
+            }
+
+            Field field = compileType(param.name(), paramType);
+            if (field.code == Field.FLAGS) {
+                flagsFields.put(param.name(), i);
+            }
+            field.flagsIndex = flagsIndex;
+            field.mask = mask;
+            fields[i] = field;
+        }
+
+        dependents.forEach((idx, list) -> {
+            Field flags = fields[idx];
+            flags.dependents = list.stream().mapToInt(Integer::intValue).toArray();
+            for (int j : flags.dependents) {
+                flags.mask |= fields[j].mask;
+            }
+        });
+
+        return new Layout(Integer.parseUnsignedInt(type.id(), 16), type.name(), type.type(),
+                type.kind() == TlTrees.Type.Kind.METHOD, fields);
+    }
+
+    static Field compileType(String name, String type) {
+        switch (type) {
+            case "#": return new Field(name, Field.FLAGS, null, null);
+            case "true": return new Field(name, Field.TRUE, null, null);
+            case "int": return new Field(name, Field.INT, null, null);
+            case "long": return new Field(name, Field.LONG, null, null);
+            case "double": return new Field(name, Field.DOUBLE, null, null);
+            case "int128": return new Field(name, Field.INT128, null, null);
+            case "int256": return new Field(name, Field.INT256, null, null);
+            case "string": return new Field(name, Field.STRING, null, null);
+            case "bytes": return new Field(name, Field.BYTES, null, null);
+            case "Bool": return new Field(name, Field.BOOL, null, null);
+        }
+
+        if (type.endsWith(">")) {
+            int lt = type.indexOf('<');
+            String vector = type.substring(0, lt);
+            byte code;
+            if (vector.equals("Vector")) {
+                code = Field.VECTOR;
+            } else if (vector.equals("vector")) {
+                code = Field.BARE_VECTOR;
+            } else {
+                throw new IllegalArgumentException("Incorrect type of parameter '" + name + "': '" + type + "'");
+            }
+            return new Field(name, code, compileType(name, type.substring(lt + 1, type.length() - 1)), null);
+        }
+        if (type.startsWith("%")) {
+            return new Field(name, Field.BARE, null, type.substring(1));
+        }
+        // bare types are named by constructors, e.g. future_salt
+        int dot = type.lastIndexOf('.');
+        if (Character.isLowerCase(type.charAt(dot + 1))) {
+            return new Field(name, Field.BARE, null, type);
+        }
+        // type of !X and Object isn't known
+        boolean generic = type.startsWith("!") || type.equals("Object");
+        return new Field(name, Field.OBJECT, null, generic ? null : type);
+    }
+
+    static void resolve(Field field, Map<String, Layout> constructorsByName, Map<String, List<Layout>> constructors) {
+        if (field.element != null) {
+            resolve(field.element, constructorsByName, constructors);
+        }
+        if (field.code != Field.BARE || field.bare != null) {
+            return;
+        }
+
+        Layout layout = constructorsByName.get(field.typeName);
+        if (layout == null) {
+            List<Layout> variants = constructors.get(field.typeName);
+            layout = variants != null && variants.size() == 1 ? variants.get(0) : null;
+        }
+        if (layout == null) {
+            throw new IllegalArgumentException("Unable to resolve bare type of parameter '"
+                    + field.name + "': '" + field.typeName + "'");
+        }
+        field.bare = layout;
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2023 Telegram4J
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package telegram4j.tl.dynamic;
+
+import reactor.util.annotation.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * Generic TL object decoded by {@link DynamicTlCodec}, which stores values of parameters
+ * in order of {@link Layout#parameters() declaration}.
+ *
+ * <p>Values are mapped as follows: {@code int}, {@code long}, {@code double} and {@code string}
+ * to the boxed primitives and {@code String}, {@code bytes}, {@code int128} and {@code int256} to the {@code ByteBuf},
+ * {@code Bool} and bit flags to {@code Boolean}, vectors to {@code List} and objects to {@code DynamicTlObject}.
+ * Absent conditional parameters are {@code null}.
+ *
+ * <p>Objects aren't {@link telegram4j.tl.api.TlObject TL objects} of the generated API
+ * and can be encoded only by the codec of their layout.
+ */
+public final class DynamicTlObject {
+    private final Layout layout;
+    final Object[] values;
+
+    DynamicTlObject(Layout layout, Object[] values) {
+        this.layout = layout;
+        this.values = values;
+    }
+
+    /**
+     * Gets constructor identifier of the object.
+     *
+     * @return The constructor identifier of the object.
+     */
+    public int identifier() {
+        return layout.identifier();
+    }
+
+    /**
+     * Gets layout of the object.
+     *
+     * @return The layout of the object.
+     */
+    public Layout layout() {
+        return layout;
+    }
+
+    /**
+     * Gets value of parameter at specified position.
+     *
+     * @throws IndexOutOfBoundsException if position is out of range of parameters.
+     * @param <T> The type of value.
+     * @param index The position of parameter.
+     * @return The value of parameter, or {@code null} if conditional parameter is absent.
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public <T> T get(int index) {
+        return (T) values[index];
+    }
+
+    /**
+     * Gets value of parameter with specified name.
+     *
+     * @throws IllegalArgumentException if layout has no parameter with this name.
+     * @param <T> The type of value.
+     * @param name The name of parameter.
+     * @return The value of parameter, or {@code null} if conditional parameter is absent.
+     */
+    @Nullable
+    public <T> T get(String name) {
+        return get(requireIndex(name));
+    }
+
+    /**
+     * Creates copy of object with new value of parameter.
+     *
+     * @throws IllegalArgumentException if layout has no parameter with this name.
+     * @param name The name of parameter.
+     * @param value The new value of parameter.
+     * @return The new object.
+     */
+    public DynamicTlObject with(String name, @Nullable Object value) {
+        Object[] copy = values.clone();
+        copy[requireIndex(name)] = value;
+        return new DynamicTlObject(layout, copy);
+    }
+
+    private int requireIndex(String name) {
+        int i = layout.indexOf(name);
+        if (i == -1) {
+            throw new IllegalArgumentException("Unknown parameter '" + name + "' of " + layout.name());
+        }
+        return i;
+    }
+
+    @Override
+    public boolean equals(@Nullable Object o) {
+        if (this == o) return true;
+        if (!(o instanceof DynamicTlObject that)) return false;
+        return layout.equals(that.layout) && Arrays.equals(values, that.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * layout.identifier() + Arrays.hashCode(values);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder()
+                .append(layout.name()).append('#')
+                .append(Integer.toHexString(layout.identifier()))
+                .append('{');
+        for (int i = 0; i < values.length; i++) {
+            if (i != 0) {
+                builder.append(", ");
+            }
+            builder.append(layout.fields[i].name).append('=').append(values[i]);
+        }
+        return builder.append('}').toString();
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2023 Telegram4J
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package telegram4j.tl.dynamic;
+
+import reactor.util.annotation.Nullable;
+
+/** Compiled instruction of layout, which encodes and decodes one parameter. */
+final class Field {
+    static final byte INT = 0;
+    static final byte LONG = 1;
+    static final byte DOUBLE = 2;
+    static final byte INT128 = 3;
+    static final byte INT256 = 4;
+    static final byte STRING = 5;
+    static final byte BYTES = 6;
+    static final byte BOOL = 7;
+    static final byte FLAGS = 8;
+    static final byte TRUE = 9; // bit flag without value
+    static final byte OBJECT = 10; // boxed object with identifier
+    static final byte BARE = 11; // constructor without identifier
+    static final byte VECTOR = 12;
+    static final byte BARE_VECTOR = 13; // vector without identifier
+
+    final String name;
+    final byte code;
+    @Nullable
+    final Field element; // element of vectors
+    @Nullable
+    final String typeName; // type of boxed objects, type or constructor of bare values
+
+    // position of flags field, or -1 if field is unconditional
+    int flagsIndex = -1;
+    // mask of bit for conditional fields; mask of all used bits for flags
+    int mask;
+    // indexes of fields which presence is stored in this flags field
+    int[] dependents = new int[0];
+    @Nullable
+    Layout bare;
+
+    Field(String name, byte code, @Nullable Field element, @Nullable String typeName) {
+        this.name = name;
+        this.code = code;
+        this.element = element;
+        this.typeName = typeName;
+    }
+
+    // minimal size of serialized value, which limits sizes of vectors
+    int minSize() {
+        return switch (code) {
+            case LONG, DOUBLE, VECTOR -> 8;
+            case INT128 -> 16;
+            case INT256 -> 32;
+            case TRUE -> 0;
+            case BARE -> {
+                int size = 0;
+                for (Field field : bare.fields) {
+                    if (field.flagsIndex == -1) {
+                        size += field.minSize();
+                    }
+                }
+                yield size;
+            }
+            // length of string and bytes is padded to 4 bytes
+            default -> 4;
+        };
+    }
+}
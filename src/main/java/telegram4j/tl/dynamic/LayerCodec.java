@@ -0,0 +1,237 @@
+/*
+ * Copyright 2023 Telegram4J
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package telegram4j.tl.dynamic;
+
+import io.netty.buffer.ByteBuf;
+import reactor.util.annotation.Nullable;
+import telegram4j.tl.TlDeserializer;
+import telegram4j.tl.TlInfo;
+import telegram4j.tl.TlSerializer;
+import telegram4j.tl.api.TlObject;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Codec of specific api layer, which is selected once per connection after negotiation of layer.
+ *
+ * <p>The generated layer, i.e. {@link TlInfo#LAYER}, is handled by {@link TlSerializer} and {@link TlDeserializer}.
+ * Other layers are described by {@link DynamicTlCodec}, but objects shared with the generated layer are
+ * still decoded to the generated classes. Constructor is shared if it has the same identifier and all
+ * constructors of its parameter types are shared too, so the most of objects remain usable by application
+ * code while the layers are migrated. Objects which aren't shared are decoded to {@link DynamicTlObject}.
+ *
+ * @see LayerRegistry
+ */
+public final class LayerCodec {
+    private static final LayerCodec GENERATED = new LayerCodec(TlInfo.LAYER, null);
+
+    private final int layer;
+    @Nullable
+    private final DynamicTlCodec codec;
+
+    private LayerCodec(int layer, @Nullable DynamicTlCodec codec) {
+        this.layer = layer;
+        this.codec = codec;
+    }
+
+    /**
+     * Gets codec of the generated layer.
+     *
+     * @return The codec of the generated layer.
+     */
+    public static LayerCodec generated() {
+        return GENERATED;
+    }
+
+    /**
+     * Creates codec of layer described by dynamic codec. Number of layer is
+     * taken from the {@link DynamicTlCodec#version() version} of api scheme.
+     *
+     * @throws IllegalArgumentException if codec has no numeric version.
+     * @param codec The codec of api layer, preferably {@link DynamicTlCodec#compile(telegram4j.tl.parser.TlTrees.Scheme...) compiled}.
+     * @return The new codec of layer.
+     */
+    public static LayerCodec of(DynamicTlCodec codec) {
+        String version = codec.version();
+        if (version == null) {
+            throw new IllegalArgumentException("Codec has no version of layer");
+        }
+
+        int layer;
+        try {
+            layer = Integer.parseInt(version);
+        } catch (NumberFormatException e) {
+            layer = -1;
+        }
+        if (layer <= 0) {
+            throw new IllegalArgumentException("Incorrect version of layer: '" + version + "'");
+        }
+        return new LayerCodec(layer, codec.withShared(sharedConstructors(codec)));
+    }
+
+    /**
+     * Gets number of layer.
+     *
+     * @return The number of layer.
+     */
+    public int layer() {
+        return layer;
+    }
+
+    /**
+     * Gets dynamic codec of layer, which decodes shared objects to the generated classes.
+     *
+     * @return The dynamic codec of layer, or {@code null} if it's the generated layer.
+     */
+    @Nullable
+    public DynamicTlCodec codec() {
+        return codec;
+    }
+
+    /**
+     * Gets whether objects with specified identifier are decoded to the generated classes.
+     *
+     * @param identifier The identifier of constructor.
+     * @return {@code true} if constructor is shared with the generated layer.
+     */
+    public boolean isShared(int identifier) {
+        if (codec == null) {
+            return true;
+        }
+        int i = Arrays.binarySearch(codec.ids, identifier);
+        return i >= 0 && codec.shared[i];
+    }
+
+    /**
+     * Decodes boxed value from the buffer. Shared objects, including nested ones, are decoded
+     * to the generated classes and others like {@link DynamicTlCodec#decode(ByteBuf)}.
+     *
+     * @throws IllegalArgumentException if buffer contains identifier unknown to layer.
+     * @param <T> The type of value.
+     * @param buf The buffer to read.
+     * @return The decoded value.
+     */
+    public <T> T decode(ByteBuf buf) {
+        return codec != null ? codec.decode(buf) : TlDeserializer.deserialize(buf);
+    }
+
+    /**
+     * Encodes value to the buffer. Generated objects must be present in the layer,
+     * however only the top-level object is checked.
+     *
+     * @throws IllegalArgumentException if value has incorrect type or isn't present in the layer.
+     * @param buf The buffer to write.
+     * @param value The value to encode.
+     */
+    public void encode(ByteBuf buf, Object value) {
+        Objects.requireNonNull(value);
+        if (codec == null) {
+            if (!(value instanceof TlObject o)) {
+                throw new IllegalArgumentException("Incorrect TL serializable type: " + value + " (" + value.getClass() + ")");
+            }
+            TlSerializer.serialize(buf, o);
+            return;
+        }
+
+        if (value instanceof TlObject o && codec.layout(o.identifier()) == null) {
+            throw new IllegalArgumentException("Object isn't present in layer " + layer
+                    + ": 0x" + Integer.toHexString(o.identifier()));
+        }
+        codec.encode(buf, value);
+    }
+
+    @Override
+    public String toString() {
+        return "LayerCodec{layer=" + layer + '}';
+    }
+
+    static boolean[] sharedConstructors(DynamicTlCodec codec) {
+        Layout[] layouts = codec.layouts;
+        boolean[] shared = new boolean[layouts.length];
+        var constructors = new HashMap<String, List<Layout>>();
+        for (Layout layout : layouts) {
+            if (layout.isMethod()) {
+                continue;
+            }
+            constructors.computeIfAbsent(layout.type(), k -> new ArrayList<>()).add(layout);
+            shared[layout.index] = isGenerated(layout.identifier());
+        }
+
+        // exclude constructors which can contain not shared objects, until nothing is changed
+        boolean changed;
+        do {
+            changed = false;
+            for (Layout layout : layouts) {
+                if (shared[layout.index] && !isShared(layout, shared, constructors)) {
+                    shared[layout.index] = false;
+                    changed = true;
+                }
+            }
+        } while (changed);
+        return shared;
+    }
+
+    private static boolean isShared(Layout layout, boolean[] shared, Map<String, List<Layout>> constructors) {
+        for (Field field : layout.fields) {
+            if (!isShared(field, shared, constructors)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isShared(Field field, boolean[] shared, Map<String, List<Layout>> constructors) {
+        return switch (field.code) {
+            case Field.OBJECT -> {
+                List<Layout> variants = field.typeName != null ? constructors.get(field.typeName) : null;
+                if (variants == null) {
+                    yield false;
+                }
+                for (Layout variant : variants) {
+                    if (!shared[variant.index]) {
+                        yield false;
+                    }
+                }
+                yield true;
+            }
+            case Field.BARE -> shared[field.bare.index];
+            case Field.VECTOR, Field.BARE_VECTOR -> isShared(field.element, shared, constructors);
+            default -> true;
+        };
+    }
+
+    private static boolean isGenerated(int identifier) {
+        switch (identifier) {
+            // decoded to the Boolean and List by dynamic codec
+            case TlInfo.BOOL_TRUE_ID:
+            case TlInfo.BOOL_FALSE_ID:
+            case TlInfo.VECTOR_ID:
+                return false;
+        }
+
+        try {
+            TlInfo.typeOf(identifier);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2023 Telegram4J
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package telegram4j.tl.dynamic;
+
+import reactor.util.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Immutable registry of {@link LayerCodec layer codecs}, indexed by number of layer.
+ * Codec of the negotiated layer is found by array access and is expected to be kept per connection.
+ */
+public final class LayerRegistry {
+    private final LayerCodec[] codecs;
+    private final List<LayerCodec> layers;
+
+    private LayerRegistry(LayerCodec[] codecs, List<LayerCodec> layers) {
+        this.codecs = codecs;
+        this.layers = layers;
+    }
+
+    /**
+     * Creates registry with specified codecs.
+     *
+     * @throws IllegalArgumentException if several codecs have same layer.
+     * @param codecs The codecs of layers, e.g. {@link LayerCodec#generated()} and codecs of older layers.
+     * @return The new registry.
+     */
+    public static LayerRegistry of(LayerCodec... codecs) {
+        int max = 0;
+        for (LayerCodec codec : codecs) {
+            max = Math.max(max, codec.layer());
+        }
+
+        LayerCodec[] table = new LayerCodec[max + 1];
+        var layers = new ArrayList<LayerCodec>(codecs.length);
+        for (LayerCodec codec : codecs) {
+            if (table[codec.layer()] != null) {
+                throw new IllegalArgumentException("Duplicate codec of layer " + codec.layer());
+            }
+            table[codec.layer()] = codec;
+            layers.add(codec);
+        }
+        layers.sort(Comparator.comparingInt(LayerCodec::layer));
+        return new LayerRegistry(table, Collections.unmodifiableList(layers));
+    }
+
+    /**
+     * Gets codec of specified layer.
+     *
+     * @param layer The number of layer.
+     * @return The codec of layer, or {@code null} if layer isn't supported.
+     */
+    @Nullable
+    public LayerCodec get(int layer) {
+        return layer >= 0 && layer < codecs.length ? codecs[layer] : null;
+    }
+
+    /**
+     * Gets codecs of all supported layers in ascending order.
+     *
+     * @return The immutable list of codecs.
+     */
+    public List<LayerCodec> layers() {
+        return layers;
+    }
+}
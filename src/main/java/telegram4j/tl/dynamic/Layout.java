@@ -0,0 +1,141 @@
+/*
+ * Copyright 2023 Telegram4J
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package telegram4j.tl.dynamic;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Compiled layout of constructor or method, which describes order and types of its parameters.
+ * Layouts are created by {@link DynamicTlCodec} and don't depend on the generated classes.
+ */
+public final class Layout {
+    private final int identifier;
+    private final String name;
+    private final String type;
+    private final boolean method;
+    private final List<String> parameters;
+
+    final Field[] fields;
+    // position in codec
+    int index;
+
+    Layout(int identifier, String name, String type, boolean method, Field[] fields) {
+        this.identifier = identifier;
+        this.name = name;
+        this.type = type;
+        this.method = method;
+        this.fields = fields;
+        this.parameters = Arrays.stream(fields)
+                .map(f -> f.name)
+                .toList();
+    }
+
+    /**
+     * Gets CRC32 identifier of the constructor or method.
+     *
+     * @return The identifier of the constructor or method.
+     */
+    public int identifier() {
+        return identifier;
+    }
+
+    /**
+     * Gets name of the constructor or method as declared in scheme, e.g. {@code messages.sendMessage}.
+     *
+     * @return The name of the constructor or method.
+     */
+    public String name() {
+        return name;
+    }
+
+    /**
+     * Gets name of the type of constructor or result type of method.
+     *
+     * @return The name of type.
+     */
+    public String type() {
+        return type;
+    }
+
+    /**
+     * Gets whether layout describes method.
+     *
+     * @return {@code true} if layout describes method.
+     */
+    public boolean isMethod() {
+        return method;
+    }
+
+    /**
+     * Gets names of parameters in order of declaration, including flags fields.
+     *
+     * @return The immutable list of parameter names.
+     */
+    public List<String> parameters() {
+        return parameters;
+    }
+
+    /**
+     * Finds position of parameter with specified name.
+     *
+     * @param name The name of parameter.
+     * @return The position of parameter, or {@code -1} if absent.
+     */
+    public int indexOf(String name) {
+        for (int i = 0; i < fields.length; i++) {
+            if (fields[i].name.equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Creates object with values of parameters in order of declaration.
+     * Values of flags fields can be {@code null}, because they are computed
+     * from the presence of conditional parameters on encoding.
+     *
+     * @throws IllegalArgumentException if count of values doesn't match count of parameters.
+     * @param values The values of parameters.
+     * @return The new object.
+     */
+    public DynamicTlObject create(Object... values) {
+        if (values.length != fields.length) {
+            throw new IllegalArgumentException("Incorrect count of values for " + name
+                    + ": " + values.length + ", expected: " + fields.length);
+        }
+        return new DynamicTlObject(this, values.clone());
+    }
+
+    @Override
+    public String toString() {
+        return name + "#" + Integer.toHexString(identifier) + parameters + " = " + type;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Layout l)) return false;
+        return identifier == l.identifier && name.equals(l.name);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(identifier, name);
+    }
+}
@@ -15,6 +15,7 @@
  */
 package telegram4j.tl.json;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonSetter;
 import com.fasterxml.jackson.core.*;
 import com.fasterxml.jackson.databind.Module;
@@ -29,18 +30,49 @@ import com.fasterxml.jackson.databind.util.ClassUtil;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufUtil;
 import io.netty.buffer.Unpooled;
+import reactor.util.annotation.Nullable;
 import telegram4j.tl.TlInfo;
 import telegram4j.tl.api.TlObject;
 
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.util.Arrays;
-import java.util.function.Function;
-import java.util.stream.Collectors;
-
+import java.lang.reflect.Type;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Jackson module for TL objects. By default, objects are written with names of fields, but
+ * {@link #compact() compact} modules write indexes of fields in the schema, which
+ * pairs well with binary backends like Smile and CBOR.
+ */
 public class TlModule extends Module {
 
+    /** The field index of object identifier in the compact form. */
+    public static final int IDENTIFIER_INDEX = -1;
+
+    private final boolean compact;
+
+    /** Creates module which writes objects with field names. */
+    public TlModule() {
+        this(false);
+    }
+
+    private TlModule(boolean compact) {
+        this.compact = compact;
+    }
+
+    /**
+     * Creates module which writes fields of objects with keys as indexes of fields in the schema
+     * and {@code identifier} as {@link #IDENTIFIER_INDEX}. Keys are written by {@link JsonGenerator#writeFieldId(long)},
+     * thus binary backends write them as integers. Such module can read only compact form.
+     *
+     * @return A new compact module.
+     */
+    public static TlModule compact() {
+        return new TlModule(true);
+    }
+
     @Override
     public String getModuleName() {
         return "TlModule";
@@ -72,7 +104,7 @@ public class TlModule extends Module {
                 if (!type.isTypeOrSubTypeOf(TlObject.class)) {
                     return null;
                 }
-                return new TlJsonSerializer(beanDesc);
+                return new TlJsonSerializer(beanDesc, compact);
             }
         });
         context.addBeanDeserializerModifier(new BeanDeserializerModifier() {
@@ -82,7 +114,7 @@ public class TlModule extends Module {
                 if (!beanDesc.getType().isTypeOrSubTypeOf(TlObject.class)) {
                     return deserializer;
                 }
-                return new TlJsonDeserializer(beanDesc);
+                return new TlJsonDeserializer(beanDesc, compact);
             }
 
             @Override
@@ -94,7 +126,7 @@ public class TlModule extends Module {
                 if (!beanDesc.getType().isTypeOrSubTypeOf(TlObject.class)) {
                     return deserializer;
                 }
-                return new TlJsonDeserializer(beanDesc);
+                return new TlJsonDeserializer(beanDesc, compact);
             }
         });
     }
@@ -137,17 +169,19 @@ public class TlModule extends Module {
         static final Class<?>[] OF_METHOD_PARAMS = {int.class};
 
         private final BeanDescription beanDesc;
+        private final boolean compact;
 
-        TlJsonDeserializer(BeanDescription beanDesc) {
+        TlJsonDeserializer(BeanDescription beanDesc, boolean compact) {
             this.beanDesc = beanDesc;
+            this.compact = compact;
         }
 
         @Override
         public TlObject deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
             if (p.currentToken() == JsonToken.START_OBJECT) p.nextToken();
-            if (!"identifier".equals(p.currentName()) || p.nextToken() != JsonToken.VALUE_NUMBER_INT) {
-                return ctxt.reportInputMismatch(this, "Expected 'identifier' as first, but given '%s' with type %s",
-                        p.currentName(), p.currentToken());
+            if (!isIdentifier(p.currentName()) || p.nextToken() != JsonToken.VALUE_NUMBER_INT) {
+                return ctxt.reportInputMismatch(this, "Expected '%s' as first, but given '%s' with type %s",
+                        compact ? IDENTIFIER_INDEX : "identifier", p.currentName(), p.currentToken());
             }
 
             int id = p.getIntValue();
@@ -166,37 +200,33 @@ public class TlModule extends Module {
                 }
             }
 
-            Object builder;
-            try {
-                Method builderMethod = type.getRawClass().getMethod("builder");
-                builder = builderMethod.invoke(null);
-            } catch (NoSuchMethodException e) {
+            PropertyTable table = PropertyTable.tables.get(type.getRawClass());
+            if (table.builder == null) {
                 try {
-                    Method m = type.getRawClass().getMethod("instance");
-                    return (TlObject) m.invoke(null);
-                } catch (Exception e1) {
+                    if (table.instance == null) {
+                        throw new NoSuchMethodException(type.getRawClass().getName() + ".builder()");
+                    }
+                    return (TlObject) table.instance.invoke(null);
+                } catch (Exception e) {
                     return wrapInstantiationProblem(e, ctxt);
                 }
+            }
+
+            Object builder;
+            try {
+                builder = table.builder.invoke(null);
             } catch (Exception e) {
                 return wrapInstantiationProblem(e, ctxt);
             }
 
-            var methods = Arrays.stream(builder.getClass().getMethods())
-                    .filter(m -> m.isAnnotationPresent(JsonSetter.class) ||
-                            m.getName().equals("build") && m.getParameterCount() == 0)
-                    .collect(Collectors.toMap(v -> {
-                        JsonSetter ann = v.getAnnotation(JsonSetter.class);
-                        return ann != null && !ann.value().isEmpty() ? ann.value() : v.getName();
-                    }, Function.identity()));
-
             if (p.nextToken() == JsonToken.FIELD_NAME) {
                 String propName = p.currentName();
                 do {
                     p.nextToken();
-                    Method prop = methods.get(propName);
+                    Property prop = compact ? table.property(fieldIndex(propName)) : table.byName.get(propName);
 
                     if (prop != null) { // normal case
-                        JavaType c = ctxt.constructType(prop.getGenericParameterTypes()[0]);
+                        JavaType c = ctxt.constructType(prop.type);
                         if (p.hasToken(JsonToken.VALUE_NUMBER_INT) && c.isTypeOrSubTypeOf(TlObject.class)) { // simplified serialization
                             int propId = p.getIntValue();
                             JavaType act = ctxt.constructSpecializedType(c, TlInfo.typeOf(propId));
@@ -204,7 +234,7 @@ public class TlModule extends Module {
                                 try {
                                     Method instanceMethod = act.getRawClass().getMethod("instance");
                                     Object o = instanceMethod.invoke(null);
-                                    prop.invoke(builder, o);
+                                    prop.setter.invoke(builder, o);
                                 } catch (Exception e) {
                                     wrapAndThrow(e, builder, propName, ctxt);
                                 }
@@ -213,7 +243,7 @@ public class TlModule extends Module {
                                     Method ofMethod = act.getRawClass().getMethod("of", OF_METHOD_PARAMS);
 
                                     Object o = ofMethod.invoke(null, propId);
-                                    prop.invoke(builder, o);
+                                    prop.setter.invoke(builder, o);
                                 } catch (Exception e) {
                                     wrapAndThrow(e, builder, propName, ctxt);
                                 }
@@ -223,7 +253,7 @@ public class TlModule extends Module {
                             var deser = ctxt.findRootValueDeserializer(c);
                             Object o = deser.deserialize(p, ctxt);
                             try {
-                                prop.invoke(builder, o);
+                                prop.setter.invoke(builder, o);
                             } catch (Exception e) {
                                 wrapAndThrow(e, builder, propName, ctxt);
                             }
@@ -236,13 +266,39 @@ public class TlModule extends Module {
             }
 
             try {
-                Method m = methods.get("build");
-                return (TlObject) m.invoke(builder);
+                return (TlObject) table.build.invoke(builder);
             } catch (Exception e) {
                 return wrapInstantiationProblem(e, ctxt);
             }
         }
 
+        private boolean isIdentifier(@Nullable String name) {
+            return compact ? fieldIndex(name) == IDENTIFIER_INDEX : "identifier".equals(name);
+        }
+
+        // parses decimal field id without allocation, returns Integer.MIN_VALUE for other names
+        static int fieldIndex(@Nullable String name) {
+            if (name == null || name.isEmpty() || name.length() > 10) {
+                return Integer.MIN_VALUE;
+            }
+
+            boolean negative = name.charAt(0) == '-';
+            int i = negative ? 1 : 0;
+            if (i == name.length()) {
+                return Integer.MIN_VALUE;
+            }
+
+            int value = 0;
+            for (; i < name.length(); i++) {
+                int d = name.charAt(i) - '0';
+                if (d < 0 || d > 9) {
+                    return Integer.MIN_VALUE;
+                }
+                value = value * 10 + d;
+            }
+            return negative ? -value : value;
+        }
+
         // methods below taken from the BeanDeserializerBase
 
         public void wrapAndThrow(Throwable t, Object bean, String fieldName, DeserializationContext ctxt) throws IOException {
@@ -310,15 +366,22 @@ public class TlModule extends Module {
     static class TlJsonSerializer extends JsonSerializer<TlObject> {
 
         private final BeanDescription beanDesc;
+        private final boolean compact;
 
-        protected TlJsonSerializer(BeanDescription beanDesc) {
+        protected TlJsonSerializer(BeanDescription beanDesc, boolean compact) {
             this.beanDesc = beanDesc;
+            this.compact = compact;
         }
 
         @Override
         public void serialize(TlObject value, JsonGenerator gen, SerializerProvider provider) throws IOException {
             gen.writeStartObject();
-            gen.writeNumberField("identifier", value.identifier());
+            if (compact) {
+                gen.writeFieldId(IDENTIFIER_INDEX);
+                gen.writeNumber(value.identifier());
+            } else {
+                gen.writeNumberField("identifier", value.identifier());
+            }
 
             serializeFields(value, gen, provider);
 
@@ -341,7 +404,12 @@ public class TlModule extends Module {
                         ? provider.constructSpecializedType(p.getPrimaryType(), o.getClass())
                         : p.getPrimaryType();
 
-                gen.writeFieldName(p.getName());
+                Integer index = p.getMetadata().getIndex();
+                if (compact && index != null) {
+                    gen.writeFieldId(index);
+                } else {
+                    gen.writeFieldName(p.getName());
+                }
                 if (p.getPrimaryType().isTypeOrSubTypeOf(TlObject.class) &&
                         (p.getPrimaryType().isEnumType() || provider.getConfig()
                                 .introspect(act).findProperties().isEmpty())) {
@@ -354,4 +422,74 @@ public class TlModule extends Module {
             }
         }
     }
+
+    record Property(Method setter, Type type) {}
+
+    // reflective metadata of TL type, which is resolved once per type
+    static final class PropertyTable {
+
+        static final ClassValue<PropertyTable> tables = new ClassValue<>() {
+            @Override
+            protected PropertyTable computeValue(Class<?> type) {
+                return new PropertyTable(type);
+            }
+        };
+
+        @Nullable
+        final Method builder;
+        @Nullable
+        final Method instance;
+        @Nullable
+        final Method build;
+        final Map<String, Property> byName = new HashMap<>();
+        final Property[] byIndex;
+
+        PropertyTable(Class<?> type) {
+            builder = findMethod(type, "builder");
+            instance = builder == null ? findMethod(type, "instance") : null;
+            build = builder != null ? findMethod(builder.getReturnType(), "build") : null;
+
+            if (builder != null) {
+                for (Method m : builder.getReturnType().getMethods()) {
+                    JsonSetter ann = m.getAnnotation(JsonSetter.class);
+                    if (ann != null) {
+                        String name = !ann.value().isEmpty() ? ann.value() : m.getName();
+                        byName.put(name, new Property(m, m.getGenericParameterTypes()[0]));
+                    }
+                }
+            }
+
+            var indexed = new HashMap<Integer, Property>();
+            int count = 0;
+            for (Method m : type.getMethods()) {
+                JsonProperty ann = m.getAnnotation(JsonProperty.class);
+                if (ann == null || ann.index() < 0) {
+                    continue;
+                }
+
+                Property prop = byName.get(!ann.value().isEmpty() ? ann.value() : m.getName());
+                if (prop != null) {
+                    indexed.put(ann.index(), prop);
+                    count = Math.max(count, ann.index() + 1);
+                }
+            }
+
+            byIndex = new Property[count];
+            indexed.forEach((i, p) -> byIndex[i] = p);
+        }
+
+        @Nullable
+        Property property(int index) {
+            return index >= 0 && index < byIndex.length ? byIndex[index] : null;
+        }
+
+        @Nullable
+        static Method findMethod(Class<?> type, String name) {
+            try {
+                return type.getMethod(name);
+            } catch (NoSuchMethodException e) {
+                return null;
+            }
+        }
+    }
 }
@@ -13,7 +13,7 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-@GenerateSchema
+@GenerateSchema(compactLayout = true, lazyDispatch = true)
 @NonNullApi
 package telegram4j.tl;
 
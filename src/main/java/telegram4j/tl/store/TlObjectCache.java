@@ -0,0 +1,387 @@
+/*
+ * Copyright 2023 Telegram4J
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package telegram4j.tl.store;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
+import reactor.util.annotation.Nullable;
+import telegram4j.tl.TlDeserializer;
+import telegram4j.tl.TlSerializer;
+import telegram4j.tl.api.TlObject;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Cache of TL objects, which keeps them serialized in off-heap slabs allocated by {@link ByteBufAllocator}.
+ * Objects are indexed by keys from user-supplied extractor, e.g. id of user, and are decoded
+ * on each {@link #get(Object) access}, so only the index remains on the heap.
+ *
+ * <p>Objects are appended to the latest slab. When the count of slabs reaches the limit,
+ * the slab with least recently used object is reclaimed with all its objects, so
+ * eviction doesn't fragment slabs and memory is returned to allocator by whole slabs.
+ *
+ * <p>Cache is thread-safe. {@link View Views} remain valid after eviction of objects until closing.
+ *
+ * @param <K> The type of keys.
+ * @param <T> The type of objects.
+ */
+public final class TlObjectCache<K, T extends TlObject> implements Closeable {
+
+    /** The default size of slabs, 1 MiB. */
+    public static final int DEFAULT_SLAB_SIZE = 1024 * 1024;
+
+    private final ByteBufAllocator allocator;
+    private final Function<? super T, ? extends K> keyExtractor;
+    private final int slabSize;
+    private final int maxSlabs;
+    // in access order, thus the first location is the least recently used
+    private final LinkedHashMap<K, Location> index = new LinkedHashMap<>(16, 0.75f, true);
+    private final ArrayDeque<Slab> slabs = new ArrayDeque<>();
+
+    private boolean closed;
+
+    private TlObjectCache(ByteBufAllocator allocator, Function<? super T, ? extends K> keyExtractor,
+                          int slabSize, int maxSlabs) {
+        this.allocator = allocator;
+        this.keyExtractor = keyExtractor;
+        this.slabSize = slabSize;
+        this.maxSlabs = maxSlabs;
+    }
+
+    /**
+     * Creates cache with pooled direct slabs of {@link #DEFAULT_SLAB_SIZE default size}.
+     *
+     * @see #create(ByteBufAllocator, Function, int, long)
+     * @param <K> The type of keys.
+     * @param <T> The type of objects.
+     * @param keyExtractor The function to extract key from object.
+     * @param maxSize The maximal size of slabs in bytes.
+     * @return The new cache.
+     */
+    public static <K, T extends TlObject> TlObjectCache<K, T> create(Function<? super T, ? extends K> keyExtractor,
+                                                                     long maxSize) {
+        return create(PooledByteBufAllocator.DEFAULT, keyExtractor, DEFAULT_SLAB_SIZE, maxSize);
+    }
+
+    /**
+     * Creates cache with direct slabs from the specified allocator.
+     *
+     * @throws IllegalArgumentException if {@code slabSize} is not positive or
+     * if {@code maxSize} is less than {@code slabSize}.
+     * @param <K> The type of keys.
+     * @param <T> The type of objects.
+     * @param allocator The allocator of slabs.
+     * @param keyExtractor The function to extract key from object.
+     * @param slabSize The size of slab in bytes, which limits the size of objects.
+     * @param maxSize The maximal size of all slabs in bytes.
+     * @return The new cache.
+     */
+    public static <K, T extends TlObject> TlObjectCache<K, T> create(ByteBufAllocator allocator,
+                                                                     Function<? super T, ? extends K> keyExtractor,
+                                                                     int slabSize, long maxSize) {
+        Objects.requireNonNull(allocator);
+        Objects.requireNonNull(keyExtractor);
+        if (slabSize <= 0) {
+            throw new IllegalArgumentException("Slab size must be positive: " + slabSize);
+        }
+        if (maxSize < slabSize) {
+            throw new IllegalArgumentException("Max size must be greater than or equal to slab size: " + maxSize);
+        }
+
+        return new TlObjectCache<>(allocator, keyExtractor, slabSize, (int) Math.min(maxSize / slabSize, Integer.MAX_VALUE));
+    }
+
+    /**
+     * Serializes object to the cache, replacing the previous object with same key.
+     * If the limit of slabs is reached, least recently used slab is evicted.
+     *
+     * @throws IllegalArgumentException if object can't fit in slab.
+     * @throws IllegalStateException if cache is closed.
+     * @param object The object to cache.
+     * @return The key of object.
+     */
+    public synchronized K put(T object) {
+        ensureOpen();
+
+        K key = Objects.requireNonNull(keyExtractor.apply(object));
+        int size = TlSerializer.sizeOf(object);
+        if (size > slabSize) {
+            throw new IllegalArgumentException("Object is too large for slab, size: " + size);
+        }
+
+        Slab slab = slabs.peekLast();
+        if (slab == null || slab.buf.writableBytes() < size) {
+            slab = nextSlab();
+        }
+
+        int offset = slab.buf.writerIndex();
+        TlSerializer.serialize(slab.buf, object);
+        slab.keys.add(key);
+        slab.live++;
+
+        Location prev = index.put(key, new Location(slab, offset, size));
+        if (prev != null) {
+            release(prev);
+        }
+        return key;
+    }
+
+    /**
+     * Decodes cached object with specified key and marks it as recently used.
+     *
+     * @throws IllegalStateException if cache is closed.
+     * @param key The key of object.
+     * @return The new decoded object, or {@code null} if absent.
+     */
+    @Nullable
+    public synchronized T get(K key) {
+        ensureOpen();
+
+        Location loc = index.get(key);
+        return loc != null ? TlDeserializer.deserialize(loc.slab.buf.slice(loc.offset, loc.size)) : null;
+    }
+
+    /**
+     * Gets serialized object with specified key without decoding and marks it as recently used.
+     * Returned view retains the slab of object, so it must be {@link View#close() closed} after use.
+     *
+     * @throws IllegalStateException if cache is closed.
+     * @param key The key of object.
+     * @return The view of object, or {@code null} if absent.
+     */
+    @Nullable
+    public synchronized View<T> view(K key) {
+        ensureOpen();
+
+        Location loc = index.get(key);
+        return loc != null ? new View<>(loc.slab.buf.retainedSlice(loc.offset, loc.size).asReadOnly()) : null;
+    }
+
+    /**
+     * Removes object with specified key from the cache.
+     *
+     * @throws IllegalStateException if cache is closed.
+     * @param key The key of object.
+     * @return {@code true} if object was present.
+     */
+    public synchronized boolean invalidate(K key) {
+        ensureOpen();
+
+        Location loc = index.remove(key);
+        if (loc != null) {
+            release(loc);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Gets count of cached objects.
+     *
+     * @return The count of cached objects.
+     */
+    public synchronized int size() {
+        return index.size();
+    }
+
+    /**
+     * Gets size of allocated slabs in bytes.
+     *
+     * @return The size of allocated slabs in bytes.
+     */
+    public synchronized long memoryUsage() {
+        return (long) slabs.size() * slabSize;
+    }
+
+    /**
+     * Removes all objects and releases slabs.
+     *
+     * @throws IllegalStateException if cache is closed.
+     */
+    public synchronized void clear() {
+        ensureOpen();
+
+        index.clear();
+        for (Slab slab : slabs) {
+            slab.buf.release();
+        }
+        slabs.clear();
+    }
+
+    /** Releases slabs of the cache. */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+
+        clear();
+        closed = true;
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("Cache is closed");
+        }
+    }
+
+    private Slab nextSlab() {
+        // release() keeps the latest slab, even if all its objects were removed
+        Slab last = slabs.peekLast();
+        if (last != null && last.live == 0) {
+            reclaim(last);
+        }
+
+        if (slabs.size() >= maxSlabs) {
+            evict(evictionCandidate());
+        }
+
+        Slab slab = new Slab(allocator.directBuffer(slabSize, slabSize));
+        slabs.addLast(slab);
+        return slab;
+    }
+
+    private Slab evictionCandidate() {
+        // slabs without objects are evicted before slabs with least recently used objects
+        for (Slab slab : slabs) {
+            if (slab.live == 0) {
+                return slab;
+            }
+        }
+        return index.isEmpty() ? slabs.peekFirst() : index.values().iterator().next().slab;
+    }
+
+    private void evict(Slab slab) {
+        for (K key : slab.keys) {
+            Location loc = index.get(key);
+            // key may be moved to other slab
+            if (loc != null && loc.slab == slab) {
+                index.remove(key);
+            }
+        }
+        reclaim(slab);
+    }
+
+    private void release(Location loc) {
+        Slab slab = loc.slab;
+        // the latest slab is still filled
+        if (--slab.live == 0 && slab != slabs.peekLast()) {
+            reclaim(slab);
+        }
+    }
+
+    private void reclaim(Slab slab) {
+        for (Iterator<Slab> it = slabs.iterator(); it.hasNext(); ) {
+            if (it.next() == slab) {
+                it.remove();
+                break;
+            }
+        }
+        slab.keys.clear();
+        slab.buf.release();
+    }
+
+    /**
+     * Serialized object, which is decoded on first access.
+     * View retains memory of object until {@link #close() closing}.
+     *
+     * @param <T> The type of object.
+     */
+    public static final class View<T extends TlObject> implements AutoCloseable {
+        private final ByteBuf payload;
+
+        @Nullable
+        private volatile T object;
+
+        View(ByteBuf payload) {
+            this.payload = payload;
+        }
+
+        /**
+         * Gets constructor identifier of object without decoding.
+         *
+         * @return The constructor identifier of object.
+         */
+        public int identifier() {
+            return payload.getIntLE(payload.readerIndex());
+        }
+
+        /**
+         * Gets read-only view of serialized object, which is valid until view closing.
+         *
+         * @return The read-only view of serialized object.
+         */
+        public ByteBuf payload() {
+            return payload.duplicate();
+        }
+
+        /**
+         * Decodes object on first call and returns cached result on subsequent calls.
+         *
+         * @return The decoded object.
+         */
+        public T get() {
+            T object = this.object;
+            if (object == null) {
+                object = TlDeserializer.deserialize(payload.duplicate());
+                this.object = object;
+            }
+            return object;
+        }
+
+        /** Releases memory of serialized object. */
+        @Override
+        public void close() {
+            payload.release();
+        }
+
+        @Override
+        public String toString() {
+            return "View{identifier=0x" + Integer.toHexString(identifier()) + '}';
+        }
+    }
+
+    final class Slab {
+        final ByteBuf buf;
+        // keys of all objects written to slab, including replaced ones
+        final List<K> keys = new ArrayList<>();
+        int live;
+
+        Slab(ByteBuf buf) {
+            this.buf = buf;
+        }
+    }
+
+    final class Location {
+        final Slab slab;
+        final int offset;
+        final int size;
+
+        Location(Slab slab, int offset, int size) {
+            this.slab = slab;
+            this.offset = offset;
+            this.size = size;
+        }
+    }
+}
@@ -0,0 +1,473 @@
+/*
+ * Copyright 2023 Telegram4J
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package telegram4j.tl.store;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import reactor.util.annotation.Nullable;
+import telegram4j.tl.TlDeserializer;
+import telegram4j.tl.TlSerializer;
+import telegram4j.tl.api.TlObject;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only store of serialized TL objects. Objects are written as records to
+ * memory-mapped segment files of fixed size and are indexed by constructor identifier
+ * and by pair of user-supplied keys, e.g. peer id and message id.
+ * Reads return {@link Entry entries}, which decode objects straight from the mapped segments on demand.
+ *
+ * <p>Record consists of header with payload size, CRC32C checksum and keys followed by boxed TL object.
+ * The order in which mapped pages reach the storage device is unspecified, so on
+ * {@link #open(Path, int) opening} checksums of records are verified while indexes are rebuilt.
+ * The first record torn by crash is discarded together with all records after it,
+ * i.e. the rest of its segment is cleared and the later segment files are deleted.
+ *
+ * <p>Store is thread-safe, but entries must not be accessed after store {@link #close() closing}.
+ */
+public final class TlObjectStore implements Closeable {
+
+    /** The default size of segment files, 64 MiB. */
+    public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    static final int HEADER_SIZE = 4 + 4 + 8 + 8;
+    static final String SEGMENT_SUFFIX = ".tls";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final List<Segment> segments = new ArrayList<>();
+    private final Map<Key, Long> byKey = new HashMap<>();
+    private final Map<Integer, Positions> byIdentifier = new HashMap<>();
+
+    private boolean closed;
+
+    private TlObjectStore(Path directory, int segmentSize) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Opens store with {@link #DEFAULT_SEGMENT_SIZE default segment size}.
+     *
+     * @see #open(Path, int)
+     * @throws IOException if segments can't be opened.
+     * @param directory The directory of segment files.
+     * @return The opened store.
+     */
+    public static TlObjectStore open(Path directory) throws IOException {
+        return open(directory, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * Opens store in the specified directory, which is created if absent.
+     * Existing segments are mapped and indexed.
+     *
+     * @throws IOException if segments can't be opened.
+     * @throws IllegalArgumentException if {@code segmentSize} can't fit any record.
+     * @param directory The directory of segment files.
+     * @param segmentSize The size of new segment files.
+     * @return The opened store.
+     */
+    public static TlObjectStore open(Path directory, int segmentSize) throws IOException {
+        if (segmentSize <= HEADER_SIZE) {
+            throw new IllegalArgumentException("Segment size must be greater than " + HEADER_SIZE + ": " + segmentSize);
+        }
+
+        Files.createDirectories(directory);
+        List<Path> files;
+        try (Stream<Path> list = Files.list(directory)) {
+            files = list.filter(p -> p.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+
+        var store = new TlObjectStore(directory, segmentSize);
+        try {
+            for (int i = 0; i < files.size(); i++) {
+                store.segments.add(Segment.map(files.get(i), segmentSize));
+                if (!store.scan(i)) {
+                    for (Path file : files.subList(i + 1, files.size())) {
+                        Files.delete(file);
+                    }
+                    break;
+                }
+            }
+            if (store.segments.isEmpty()) {
+                store.nextSegment();
+            }
+        } catch (Throwable t) {
+            store.close();
+            throw t;
+        }
+        return store;
+    }
+
+    /**
+     * Appends object to the store. If record with same keys already exists,
+     * it becomes inaccessible by keys, but still remains in the index by identifier.
+     *
+     * @throws IOException if new segment can't be created.
+     * @throws IllegalArgumentException if object can't fit in segment.
+     * @throws IllegalStateException if store is closed.
+     * @param <T> The type of object.
+     * @param key The first key of object, e.g. peer id.
+     * @param subkey The second key of object, e.g. message id.
+     * @param object The object to append.
+     * @return The entry of appended object.
+     */
+    public synchronized <T extends TlObject> Entry<T> append(long key, long subkey, T object) throws IOException {
+        ensureOpen();
+
+        int size = TlSerializer.sizeOf(object);
+        if (size > segmentSize - HEADER_SIZE) {
+            throw new IllegalArgumentException("Object is too large for segment, size: " + size);
+        }
+
+        ByteBuf buf = segments.get(segments.size() - 1).buf;
+        if (buf.writableBytes() < HEADER_SIZE + size) {
+            buf = nextSegment().buf;
+        }
+
+        int offset = buf.writerIndex();
+        buf.writerIndex(offset + HEADER_SIZE);
+        TlSerializer.serialize(buf, object);
+        buf.setLongLE(offset + 8, key);
+        buf.setLongLE(offset + 16, subkey);
+        buf.setIntLE(offset + 4, checksum(buf, offset, size));
+        buf.setIntLE(offset, size);
+
+        long pos = position(segments.size() - 1, offset);
+        index(pos, key, subkey, object.identifier());
+        return new Entry<>(key, subkey, buf.slice(offset + HEADER_SIZE, size));
+    }
+
+    /**
+     * Finds latest appended object with specified keys.
+     *
+     * @throws IllegalStateException if store is closed.
+     * @param <T> The type of object.
+     * @param key The first key of object.
+     * @param subkey The second key of object.
+     * @return The entry of object, or {@code null} if absent.
+     */
+    @Nullable
+    public synchronized <T extends TlObject> Entry<T> get(long key, long subkey) {
+        ensureOpen();
+
+        Long pos = byKey.get(new Key(key, subkey));
+        return pos != null ? entry(pos) : null;
+    }
+
+    /**
+     * Finds all objects with specified constructor identifier in order of appending.
+     *
+     * @throws IllegalStateException if store is closed.
+     * @param <T> The type of objects.
+     * @param identifier The identifier of constructor.
+     * @return The list of entries.
+     */
+    public synchronized <T extends TlObject> List<Entry<T>> findByIdentifier(int identifier) {
+        ensureOpen();
+
+        Positions positions = byIdentifier.get(identifier);
+        if (positions == null) {
+            return List.of();
+        }
+
+        var result = new ArrayList<Entry<T>>(positions.size);
+        for (int i = 0; i < positions.size; i++) {
+            result.add(entry(positions.values[i]));
+        }
+        return result;
+    }
+
+    /**
+     * Gets count of records in the store, including records with replaced keys.
+     *
+     * @return The count of records.
+     */
+    public synchronized int size() {
+        int size = 0;
+        for (Positions p : byIdentifier.values()) {
+            size += p.size;
+        }
+        return size;
+    }
+
+    /**
+     * Writes appended records to the storage device.
+     *
+     * @throws IllegalStateException if store is closed.
+     */
+    public synchronized void flush() {
+        ensureOpen();
+
+        for (Segment segment : segments) {
+            segment.mapped.force();
+        }
+    }
+
+    /**
+     * Flushes and closes segment files. Mapped memory is released by GC.
+     *
+     * @throws IOException if segment file can't be closed.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+        IOException ex = null;
+        for (Segment segment : segments) {
+            try {
+                segment.mapped.force();
+                segment.channel.close();
+            } catch (IOException e) {
+                if (ex == null) {
+                    ex = e;
+                } else {
+                    ex.addSuppressed(e);
+                }
+            }
+        }
+        segments.clear();
+        byKey.clear();
+        byIdentifier.clear();
+
+        if (ex != null) {
+            throw ex;
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("Store is closed");
+        }
+    }
+
+    private Segment nextSegment() throws IOException {
+        Path file = directory.resolve(String.format("%08d%s", segments.size(), SEGMENT_SUFFIX));
+        Segment segment = Segment.map(file, segmentSize);
+        segments.add(segment);
+        return segment;
+    }
+
+    // returns false if segment has torn record
+    private boolean scan(int index) {
+        ByteBuf buf = segments.get(index).buf;
+        int offset = 0;
+        boolean torn = false;
+        while (buf.capacity() - offset >= HEADER_SIZE + 4) {
+            int size = buf.getIntLE(offset);
+            if (size == 0 && isZero(buf, offset, HEADER_SIZE)) { // end of records
+                break;
+            }
+            if (size < 4 || size > buf.capacity() - offset - HEADER_SIZE
+                    || buf.getIntLE(offset + 4) != checksum(buf, offset, size)) {
+                torn = true;
+                break;
+            }
+
+            index(position(index, offset), buf.getLongLE(offset + 8),
+                    buf.getLongLE(offset + 16), buf.getIntLE(offset + HEADER_SIZE));
+            offset += HEADER_SIZE + size;
+        }
+
+        if (torn) {
+            // remains of torn record must not be read as header of next record
+            buf.setZero(offset, buf.capacity() - offset);
+        }
+        buf.writerIndex(offset);
+        return !torn;
+    }
+
+    static boolean isZero(ByteBuf buf, int offset, int length) {
+        for (int i = 0; i < length; i += 4) {
+            if (buf.getIntLE(offset + i) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void index(long pos, long key, long subkey, int identifier) {
+        byKey.put(new Key(key, subkey), pos);
+        byIdentifier.computeIfAbsent(identifier, k -> new Positions()).add(pos);
+    }
+
+    private <T extends TlObject> Entry<T> entry(long pos) {
+        ByteBuf buf = segments.get((int) (pos >>> 32)).buf;
+        int offset = (int) pos;
+        int size = buf.getIntLE(offset);
+        return new Entry<>(buf.getLongLE(offset + 8), buf.getLongLE(offset + 16),
+                buf.slice(offset + HEADER_SIZE, size));
+    }
+
+    // checksum of keys and payload of record
+    static int checksum(ByteBuf buf, int offset, int size) {
+        var crc = new CRC32C();
+        crc.update(buf.nioBuffer(offset + 8, HEADER_SIZE - 8 + size));
+        return (int) crc.getValue();
+    }
+
+    static long position(int segment, int offset) {
+        return (long) segment << 32 | offset;
+    }
+
+    /**
+     * Stored object, which is decoded on first access.
+     *
+     * @param <T> The type of object.
+     */
+    public static final class Entry<T extends TlObject> {
+        private final long key;
+        private final long subkey;
+        private final ByteBuf payload;
+
+        @Nullable
+        private volatile T object;
+
+        Entry(long key, long subkey, ByteBuf payload) {
+            this.key = key;
+            this.subkey = subkey;
+            this.payload = payload;
+        }
+
+        /**
+         * Gets the first key of object.
+         *
+         * @return The first key of object.
+         */
+        public long key() {
+            return key;
+        }
+
+        /**
+         * Gets the second key of object.
+         *
+         * @return The second key of object.
+         */
+        public long subkey() {
+            return subkey;
+        }
+
+        /**
+         * Gets constructor identifier of object without decoding.
+         *
+         * @return The constructor identifier of object.
+         */
+        public int identifier() {
+            return payload.getIntLE(payload.readerIndex());
+        }
+
+        /**
+         * Gets read-only view of serialized object, which is valid until store closing.
+         *
+         * @return The read-only view of serialized object.
+         */
+        public ByteBuf payload() {
+            return payload.asReadOnly();
+        }
+
+        /**
+         * Decodes object on first call and returns cached result on subsequent calls.
+         *
+         * @return The decoded object.
+         */
+        public T get() {
+            T object = this.object;
+            if (object == null) {
+                object = TlDeserializer.deserialize(payload.duplicate());
+                this.object = object;
+            }
+            return object;
+        }
+
+        @Override
+        public boolean equals(@Nullable Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Entry<?> e)) return false;
+            return key == e.key && subkey == e.subkey && payload.equals(e.payload);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(key, subkey, payload);
+        }
+
+        @Override
+        public String toString() {
+            return "Entry{key=" + key + ", subkey=" + subkey + ", identifier=0x" + Integer.toHexString(identifier()) + '}';
+        }
+    }
+
+    record Key(long key, long subkey) {}
+
+    static final class Segment {
+        final FileChannel channel;
+        final MappedByteBuffer mapped;
+        final ByteBuf buf;
+
+        Segment(FileChannel channel, MappedByteBuffer mapped) {
+            this.channel = channel;
+            this.mapped = mapped;
+            this.buf = Unpooled.wrappedBuffer(mapped).writerIndex(0);
+        }
+
+        static Segment map(Path file, int size) throws IOException {
+            var channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            try {
+                long length = Math.max(channel.size(), size);
+                if (length > Integer.MAX_VALUE) {
+                    throw new IOException("Segment file is too large: " + file);
+                }
+                return new Segment(channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, length));
+            } catch (Throwable t) {
+                channel.close();
+                throw t;
+            }
+        }
+    }
+
+    static final class Positions {
+        long[] values = new long[4];
+        int size;
+
+        void add(long pos) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = pos;
+        }
+    }
+}
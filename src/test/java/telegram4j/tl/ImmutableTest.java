@@ -16,6 +16,7 @@
 package telegram4j.tl;
 
 import io.netty.buffer.Unpooled;
+import io.netty.buffer.UnpooledByteBufAllocator;
 import org.junit.jupiter.api.Test;
 import telegram4j.tl.request.messages.ImmutableTranslateText;
 import telegram4j.tl.request.messages.TranslateText;
@@ -73,6 +74,82 @@ class ImmutableTest {
                 .build();
     }
 
+    @Test
+    void builderReset() {
+        var builder = BaseMessage.builder();
+        for (int i = 0; i < 3; i++) {
+            var message = builder.reset()
+                    .id(i)
+                    .peerId(ImmutablePeerChat.of(1))
+                    .date(2)
+                    .message("text")
+                    .addEntity(MessageEntityBold.builder().offset(0).length(i).build())
+                    .build();
+
+            assertEquals(List.of(MessageEntityBold.builder().offset(0).length(i).build()), message.entities());
+            assertEquals(i, message.id());
+        }
+
+        // reset clears all attributes, including optional lists
+        assertThrowsExactly(IllegalStateException.class, () -> builder.reset().build());
+        var message = builder.reset()
+                .id(1)
+                .peerId(ImmutablePeerChat.of(1))
+                .date(2)
+                .message("text")
+                .build();
+        assertNull(message.entities());
+        assertEquals(0, message.flags());
+    }
+
+    @Test
+    void flyweights() {
+        var expected = ReplyKeyboardHide.builder().selective(true).build();
+        assertSame(expected, ImmutableReplyKeyboardHide.of(ReplyKeyboardHide.SELECTIVE_MASK));
+        assertSame(expected, ImmutableReplyKeyboardHide.of().withSelective(true));
+
+        var buf = TlSerializer.serialize(UnpooledByteBufAllocator.DEFAULT, expected);
+        assertSame(expected, TlDeserializer.deserialize(buf));
+        buf.release();
+
+        // unknown bits must be preserved
+        assertEquals(1 << 30, ImmutableReplyKeyboardHide.of(1 << 30).flags());
+    }
+
+    @Test
+    void compactLayout() {
+        var message = BaseMessage.builder()
+                .id(1)
+                .peerId(ImmutablePeerChat.of(100))
+                .date(10)
+                .message("text")
+                .media(MessageMediaEmpty.instance())
+                .postAuthor("author")
+                .build();
+
+        assertEquals(MessageMediaEmpty.instance(), message.media());
+        assertEquals("author", message.postAuthor());
+        assertNull(message.fromId());
+        assertNull(message.entities());
+
+        // packed values after the changed one must be shifted
+        var withFrom = message.withFromId(ImmutablePeerUser.of(200));
+        assertEquals(ImmutablePeerUser.of(200), withFrom.fromId());
+        assertEquals(MessageMediaEmpty.instance(), withFrom.media());
+        assertEquals("author", withFrom.postAuthor());
+        assertEquals(message, withFrom.withFromId(null));
+        assertEquals(message.hashCode(), withFrom.withFromId(null).hashCode());
+
+        var withoutMedia = message.withMedia(null);
+        assertNull(withoutMedia.media());
+        assertEquals("author", withoutMedia.postAuthor());
+        assertEquals(0, withoutMedia.flags() & BaseMessage.MEDIA_MASK);
+
+        var buf = TlSerializer.serialize(UnpooledByteBufAllocator.DEFAULT, withFrom);
+        assertEquals(withFrom, TlDeserializer.deserialize(buf));
+        buf.release();
+    }
+
     @Test
     void objectMethods() {
 
@@ -18,6 +18,7 @@ package telegram4j.tl;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
 import io.netty.buffer.Unpooled;
 import org.junit.jupiter.api.Test;
 import telegram4j.tl.api.TlObject;
@@ -25,10 +26,13 @@ import telegram4j.tl.json.TlModule;
 import telegram4j.tl.request.InvokeWithLayer;
 import telegram4j.tl.request.help.GetConfig;
 
+import java.io.ByteArrayOutputStream;
 import java.security.SecureRandom;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class JsonSerializationTest {
 
@@ -83,6 +87,92 @@ class JsonSerializationTest {
         assertEquals(expUpdateNewMessage, serialize(expUpdateNewMessage));
     }
 
+    @Test
+    void transcoding() throws Throwable {
+        var expUpdates = BaseUpdates.builder()
+                .addUpdate(UpdateNewMessage.builder()
+                        .pts(2)
+                        .message(BaseMessage.builder()
+                                .id(1234)
+                                .silent(true)
+                                .message("text \u0442\u0435\u043a\u0441\u0442")
+                                .date(1337)
+                                .peerId(ImmutablePeerChat.of(312312))
+                                .addEntity(MessageEntityBold.builder().offset(0).length(4).build())
+                                .build())
+                        .ptsCount(1)
+                        .build())
+                .addChat(Channel.builder()
+                        .id(1)
+                        .title("title")
+                        .photo(ChatPhotoEmpty.instance())
+                        .date(1)
+                        .build())
+                .users(List.of())
+                .date(1)
+                .seq(2)
+                .build();
+
+        var expAppEvent = InputAppEvent.builder()
+                .time(1.5)
+                .type("type")
+                .peer(3)
+                .data(mapper.createObjectNode()
+                        .put("a", "b")
+                        .set("c", mapper.createArrayNode().add(1.0)))
+                .build();
+
+        for (TlObject expected : List.of(expUpdates, expAppEvent, ChatPhotoEmpty.instance())) {
+            ByteBuf bytes = TlSerializer.serialize(ByteBufAllocator.DEFAULT, expected);
+            var out = new ByteArrayOutputStream();
+            try (var gen = mapper.getFactory().createGenerator(out)) {
+                TlJsonTranscoder.toJson(bytes, gen);
+            }
+            bytes.release();
+
+            String json = mapper.writeValueAsString(expected);
+            assertEquals(mapper.readTree(json), mapper.readTree(out.toByteArray()));
+
+            ByteBuf buf = Unpooled.buffer();
+            try (var parser = mapper.createParser(json)) {
+                TlJsonTranscoder.toTl(parser, buf);
+            }
+            assertEquals(expected, TlDeserializer.deserialize(buf));
+            assertEquals(0, buf.readableBytes());
+        }
+    }
+
+    @Test
+    void compact() throws Throwable {
+        var compactMapper = new ObjectMapper()
+                .registerModule(TlModule.compact());
+
+        var expected = UpdateNewMessage.builder()
+                .pts(2)
+                .message(BaseMessage.builder()
+                        .id(1234)
+                        .silent(true)
+                        .message("text")
+                        .date(1337)
+                        .peerId(ImmutablePeerChat.of(312312))
+                        .fromId(ImmutablePeerUser.of(1))
+                        .addEntity(MessageEntityBold.builder().offset(0).length(4).build())
+                        .build())
+                .ptsCount(1)
+                .build();
+
+        String json = compactMapper.writeValueAsString(expected);
+        assertEquals(expected, compactMapper.readValue(json, TlObject.class));
+        assertEquals(expected, compactMapper.readValue(json, Update.class));
+
+        var tree = compactMapper.readTree(json);
+        assertEquals(UpdateNewMessage.ID, tree.get(Integer.toString(TlModule.IDENTIFIER_INDEX)).intValue());
+        assertEquals(312312, tree.get(Integer.toString(UpdateNewMessage.MESSAGE_FIELD))
+                .get(Integer.toString(BaseMessage.PEER_ID_FIELD))
+                .get(Integer.toString(PeerChat.CHAT_ID_FIELD)).longValue());
+        assertTrue(json.length() < mapper.writeValueAsString(expected).length());
+    }
+
     static <T> T serialize(T o, TypeReference<? extends T> ptype) throws Throwable {
         String s = mapper.writeValueAsString(o);
         return mapper.readValue(s, ptype);
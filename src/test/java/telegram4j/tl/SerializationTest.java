@@ -22,17 +22,27 @@ import io.netty.buffer.ByteBufAllocator;
 import io.netty.buffer.Unpooled;
 import io.netty.buffer.UnpooledByteBufAllocator;
 import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
 import telegram4j.tl.api.TlObject;
 import telegram4j.tl.mtproto.GzipPacked;
+import telegram4j.tl.mtproto.Message;
+import telegram4j.tl.mtproto.MessageContainer;
 import telegram4j.tl.mtproto.ResPQ;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 import java.util.zip.Deflater;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class SerializationTest {
 
@@ -130,6 +140,277 @@ class SerializationTest {
         assertEquals(TlSerializer.sizeOf(expected), 36);
     }
 
+    @Test
+    void fixedSizeOf() {
+        var peer = PeerUser.builder().userId(1).build();
+
+        assertEquals(TlSerializer.sizeOf(peer), TlSerializer.fixedSizeOf(PeerUser.ID));
+        assertEquals(4, TlSerializer.fixedSizeOf(ChatPhotoEmpty.ID));
+        assertEquals(-1, TlSerializer.fixedSizeOf(Channel.ID));
+        assertEquals(-1, TlSerializer.fixedSizeOf(0));
+        assertEquals(TlSerializer.fixedSizeOf(PeerUser.ID), PeerUser.FIXED_SIZE);
+        assertEquals(4, InputPeerEmpty.FIXED_SIZE);
+    }
+
+    @Test
+    void codecs() {
+        List<TlObject> expected = List.of(
+                ChatEmpty.builder().id(1).build(),
+                ChatPhotoEmpty.instance(),
+                Channel.builder()
+                        .id(2)
+                        .title("title")
+                        .photo(ChatPhotoEmpty.instance())
+                        .date(1)
+                        .build());
+
+        List<ByteBuf> encoded = TlCodecs.encode(Flux.fromIterable(expected), alloc, 16)
+                .collectList()
+                .block();
+        assertEquals(2, encoded.size());
+
+        // split stream to chunks which cross object boundaries
+        ByteBuf all = Unpooled.wrappedBuffer(encoded.toArray(new ByteBuf[0]));
+        List<ByteBuf> chunks = new ArrayList<>();
+        while (all.isReadable()) {
+            chunks.add(all.readRetainedSlice(Math.min(3, all.readableBytes())));
+        }
+        all.release();
+
+        List<TlObject> actual = TlCodecs.<TlObject>decode(Flux.fromIterable(chunks))
+                .collectList()
+                .block();
+
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void codecsLargeObject() {
+        char[] data = new char[64 * 1024];
+        Arrays.fill(data, 'a');
+        List<TlObject> expected = List.of(
+                DataJSON.builder().data(new String(data)).build(),
+                ChatPhotoEmpty.instance());
+
+        ByteBuf all = Unpooled.wrappedBuffer(TlSerializer.serialize(alloc, expected.get(0)),
+                TlSerializer.serialize(alloc, expected.get(1)));
+        List<ByteBuf> chunks = new ArrayList<>();
+        while (all.isReadable()) {
+            chunks.add(all.readRetainedSlice(Math.min(7, all.readableBytes())));
+        }
+        all.release();
+
+        List<TlObject> actual = TlCodecs.<TlObject>decode(Flux.fromIterable(chunks))
+                .collectList()
+                .block();
+
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void codecsVectors() {
+        ByteBuf all = alloc.buffer();
+        // matches length of vector with two longs
+        all.writeIntLE(TlInfo.VECTOR_ID);
+        all.writeIntLE(2);
+        TlSerializer.serialize(all, ChatPhotoEmpty.instance());
+        TlSerializer.serialize(all, ChatPhotoEmpty.instance());
+        all.writeIntLE(TlInfo.VECTOR_ID);
+        all.writeIntLE(1);
+        TlSerializer.serialize(all, ChatEmpty.builder().id(1).build());
+        TlSerializer.serialize(all, ChatPhotoEmpty.instance());
+
+        List<ByteBuf> chunks = new ArrayList<>();
+        while (all.isReadable()) {
+            chunks.add(all.readRetainedSlice(Math.min(3, all.readableBytes())));
+        }
+        all.release();
+
+        List<Object> actual = TlCodecs.decode(Flux.fromIterable(chunks))
+                .collectList()
+                .block();
+
+        assertEquals(List.of(
+                List.of(ChatPhotoEmpty.instance(), ChatPhotoEmpty.instance()),
+                List.of(ChatEmpty.builder().id(1).build()),
+                ChatPhotoEmpty.instance()), actual);
+
+        ByteBuf longs = alloc.buffer();
+        longs.writeIntLE(TlInfo.VECTOR_ID);
+        longs.writeIntLE(2);
+        longs.writeLongLE(1);
+        longs.writeLongLE(2);
+        ByteBuf next = TlSerializer.serialize(alloc, ChatPhotoEmpty.instance());
+        var e = assertThrows(IllegalStateException.class, () -> TlCodecs.decode(Flux.just(longs, next)).blockLast());
+        assertTrue(e.getMessage().contains("vectors of primitives"), e.getMessage());
+    }
+
+    @Test
+    void codecsCorruptedLength() {
+        ByteBuf complete = TlSerializer.serialize(alloc, ChatPhotoEmpty.instance());
+        // string length of 16MiB - 1, which never arrives
+        ByteBuf corrupted = alloc.buffer();
+        corrupted.writeIntLE(DataJSON.ID);
+        corrupted.writeByte(0xfe);
+        corrupted.writeMediumLE(0xffffff);
+
+        Flux<ByteBuf> source = Flux.just(complete, corrupted, alloc.buffer().writeZero(16));
+        var e = assertThrows(IllegalStateException.class, () -> TlCodecs.decode(source, 1024).blockLast());
+        assertTrue(e.getMessage().contains("exceeds limit"), e.getMessage());
+    }
+
+    @Test
+    void parallelContainer() {
+        // msg_container contains bare vector of messages
+        ByteBuf bytes = alloc.buffer();
+        bytes.writeIntLE(MessageContainer.ID);
+        bytes.writeIntLE(100);
+
+        var builder = MessageContainer.builder();
+        for (int i = 0; i < 100; i++) {
+            var message = Message.builder()
+                    .msgId(i)
+                    .seqno(i * 2)
+                    .bytes(12)
+                    .body(ChatEmpty.builder().id(i).build())
+                    .build();
+
+            bytes.writeLongLE(message.msgId());
+            bytes.writeIntLE(message.seqno());
+            bytes.writeIntLE(message.bytes());
+            TlSerializer.serialize(bytes, (TlObject) message.body());
+            builder.addMessage(message);
+        }
+        MessageContainer expected = builder.build();
+
+        MessageContainer actual = TlParallelDeserializer.create(ForkJoinPool.commonPool(), 8)
+                .deserialize(bytes);
+        bytes.release();
+
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void skip() {
+        var expected = BaseMessage.builder()
+                .id(1)
+                .peerId(PeerUser.builder().userId(2).build())
+                .date(3)
+                .message("text")
+                .editDate(4)
+                .entities(List.of(MessageEntityBold.builder().offset(0).length(4).build()))
+                .build();
+
+        ByteBuf bytes = TlSerializer.serialize(alloc, expected);
+        TlSkipper.skip(bytes);
+        assertEquals(0, bytes.readableBytes());
+
+        ByteBuf truncated = bytes.slice(0, bytes.writerIndex() - 1);
+        assertThrows(IndexOutOfBoundsException.class, () -> TlSkipper.skip(truncated));
+        bytes.release();
+    }
+
+    @Test
+    void projection() {
+        var message = BaseMessage.builder()
+                .id(1)
+                .peerId(PeerUser.builder().userId(2).build())
+                .date(3)
+                .message("text")
+                .silent(true)
+                .build();
+
+        ByteBuf bytes = TlSerializer.serialize(alloc, message);
+        long[] values = new long[4];
+        int id = TlProjector.project(bytes, 1L << BaseMessage.ID_FIELD | 1L << BaseMessage.DATE_FIELD |
+                1L << BaseMessage.PEER_ID_FIELD | 1L << BaseMessage.SILENT_FIELD, new TlFieldSink() {
+            @Override
+            public void intField(int field, int value) {
+                switch (field) {
+                    case BaseMessage.ID_FIELD -> values[0] = value;
+                    case BaseMessage.DATE_FIELD -> values[1] = value;
+                }
+            }
+
+            @Override
+            public void booleanField(int field, boolean value) {
+                values[2] = value ? 1 : 0;
+            }
+
+            @Override
+            public void objectField(int field, ByteBuf value) {
+                TlProjector.project(value, 1L << PeerUser.USER_ID_FIELD, new TlFieldSink() {
+                    @Override
+                    public void longField(int field, long value) {
+                        values[3] = value;
+                    }
+                });
+            }
+        });
+
+        assertEquals(BaseMessage.ID, id);
+        assertEquals(0, bytes.readableBytes());
+        assertEquals(List.of(1L, 3L, 1L, 2L), Arrays.stream(values).boxed().toList());
+        bytes.release();
+    }
+
+    @Test
+    void walk() {
+        var message = BaseMessage.builder()
+                .id(1)
+                .peerId(PeerUser.builder().userId(2).build())
+                .date(3)
+                .message("text")
+                .entities(List.of(MessageEntityBold.builder().offset(0).length(4).build()))
+                .build();
+
+        ByteBuf bytes = TlSerializer.serialize(alloc, message);
+        var events = new ArrayList<String>();
+        TlWalker.walk(bytes, new TlVisitor() {
+            @Override
+            public void beginObject(String name, int identifier) {
+                events.add(name + "{" + Integer.toHexString(identifier));
+            }
+
+            @Override
+            public void endObject() {
+                events.add("}");
+            }
+
+            @Override
+            public void beginVector(String name, int count) {
+                events.add(name + "[" + count);
+            }
+
+            @Override
+            public void endVector() {
+                events.add("]");
+            }
+
+            @Override
+            public void intField(String name, int value) {
+                events.add(name + "=" + value);
+            }
+
+            @Override
+            public void longField(String name, long value) {
+                events.add(name + "=" + value);
+            }
+
+            @Override
+            public void stringField(String name, ByteBuf value) {
+                events.add(name + "=" + value.toString(StandardCharsets.UTF_8));
+            }
+        });
+
+        assertEquals(0, bytes.readableBytes());
+        assertEquals(List.of("null{" + Integer.toHexString(BaseMessage.ID), "flags=" + message.flags(), "id=1",
+                "peer_id{" + Integer.toHexString(PeerUser.ID), "user_id=2", "}", "date=3", "message=text",
+                "entities[1", "null{" + Integer.toHexString(MessageEntityBold.ID), "offset=0", "length=4", "}", "]",
+                "}"), events);
+        bytes.release();
+    }
+
     static <T extends TlObject> T serialize(T obj) {
         ByteBuf serialized = TlSerializer.serialize(alloc, obj);
         try {
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2023 Telegram4J
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package telegram4j.tl;
+
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TlStatsTest {
+
+    @Test
+    void histogram() {
+        for (long v = 0; v < 100_000; v++) {
+            long lower = TlStats.Histogram.lowerBound(TlStats.Histogram.index(v));
+            assertTrue(lower <= v && v - lower <= v / TlStats.Histogram.SUB_COUNT, "lower bound of " + v);
+        }
+        assertEquals(TlStats.Histogram.BUCKETS - 1, TlStats.Histogram.index(Long.MAX_VALUE));
+    }
+
+    @Test
+    void snapshots() {
+        var stats = new TlStats();
+        for (int i = 1; i <= 100; i++) {
+            stats.onEncode(BaseMessage.ID, i, 1000);
+        }
+        stats.onDecode(TlInfo.VECTOR_ID, 8, 10);
+        stats.onCompress(1000, 250, 10);
+
+        var snapshot = stats.snapshotAndReset();
+        var message = snapshot.constructors().get(BaseMessage.ID);
+        assertEquals(BaseMessage.class, message.type());
+        assertEquals(100, message.encoded().count());
+        assertEquals(5050, message.encoded().bytes());
+        assertEquals(48, message.encoded().sizes().valueAtPercentile(50));
+        assertEquals(96, message.encoded().sizes().max());
+        assertEquals(0, message.decoded().count());
+        assertNull(snapshot.constructors().get(TlInfo.VECTOR_ID).type());
+        assertEquals(4.0, snapshot.compression().ratio());
+
+        assertTrue(stats.snapshot().constructors().isEmpty());
+        assertEquals(0, stats.snapshot().compression().count());
+    }
+
+    @Test
+    void countersTable() {
+        var table = new TlStats.CountersTable();
+        List<TlStats.Counters> counters = new ArrayList<>();
+        for (int i = 0; i < TlStats.CountersTable.INITIAL_CAPACITY * 4; i++) {
+            int identifier = i * 0x10001;
+            assertNull(table.get(identifier));
+            counters.add(table.computeIfAbsent(identifier));
+        }
+
+        assertEquals(TlStats.CountersTable.INITIAL_CAPACITY * 8, table.table.length());
+        for (int i = 0; i < counters.size(); i++) {
+            assertSame(counters.get(i), table.get(i * 0x10001));
+            assertSame(counters.get(i), table.computeIfAbsent(i * 0x10001));
+        }
+    }
+
+    @Test
+    void sampling() {
+        var stats = new TlStats();
+        assertFalse(stats.sample(BaseMessage.ID));
+
+        List<byte[]> samples = new ArrayList<>();
+        stats.enableSampling(1, (identifier, payload) -> samples.add(payload));
+        assertTrue(stats.sample(BaseMessage.ID));
+        stats.onSample(BaseMessage.ID, Unpooled.wrappedBuffer(new byte[]{1, 2, 3}));
+        assertArrayEquals(new byte[]{1, 2, 3}, samples.get(0));
+
+        stats.disableSampling();
+        assertFalse(stats.sample(BaseMessage.ID));
+    }
+}
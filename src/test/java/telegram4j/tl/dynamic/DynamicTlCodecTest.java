@@ -0,0 +1,233 @@
+/*
+ * Copyright 2023 Telegram4J
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package telegram4j.tl.dynamic;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+import telegram4j.tl.BaseMessage;
+import telegram4j.tl.ImmutableMessageEntityBold;
+import telegram4j.tl.ImmutablePeerChat;
+import telegram4j.tl.TlDeserializer;
+import telegram4j.tl.TlSerializer;
+import telegram4j.tl.mtproto.ResPQ;
+import telegram4j.tl.parser.ImmutableTlTrees;
+import telegram4j.tl.parser.TlTrees;
+import telegram4j.tl.request.mtproto.ImmutablePing;
+import telegram4j.tl.request.mtproto.Ping;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static telegram4j.tl.TlInfo.VECTOR_ID;
+
+class DynamicTlCodecTest {
+
+    static final TlTrees.Scheme[] schemes = readSchemes("/api.json", "/mtproto.json");
+    static final DynamicTlCodec codec = DynamicTlCodec.create(schemes);
+
+    static TlTrees.Scheme[] readSchemes(String... resources) {
+        var mapper = new ObjectMapper();
+        var schemes = new TlTrees.Scheme[resources.length];
+        for (int i = 0; i < resources.length; i++) {
+            try (InputStream is = DynamicTlCodecTest.class.getResourceAsStream(resources[i])) {
+                schemes[i] = mapper.readValue(is, TlTrees.Scheme.class);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return schemes;
+    }
+
+    @Test
+    void message() {
+        var message = BaseMessage.builder()
+                .out(true)
+                .id(1)
+                .peerId(ImmutablePeerChat.of(100))
+                .date(10)
+                .message("text")
+                .entities(List.of(ImmutableMessageEntityBold.of(0, 4)))
+                .views(3)
+                .forwards(0)
+                .build();
+
+        ByteBuf buf = TlSerializer.serialize(Unpooled.buffer(), message);
+        byte[] expected = ByteBufUtil.getBytes(buf);
+
+        DynamicTlObject decoded = codec.decode(buf);
+        assertFalse(buf.isReadable());
+        assertEquals("message", decoded.layout().name());
+        assertEquals(BaseMessage.ID, decoded.identifier());
+        assertEquals(Boolean.TRUE, decoded.get("out"));
+        assertEquals(Boolean.FALSE, decoded.get("pinned"));
+        assertEquals("text", decoded.get("message"));
+        assertEquals(Integer.valueOf(3), decoded.get("views"));
+        assertNull(decoded.get("media"));
+        DynamicTlObject peer = decoded.get("peer_id");
+        assertEquals(Long.valueOf(100), peer.get("chat_id"));
+        List<DynamicTlObject> entities = decoded.get("entities");
+        assertEquals("messageEntityBold", entities.get(0).layout().name());
+
+        ByteBuf encoded = Unpooled.buffer();
+        codec.encode(encoded, decoded);
+        assertArrayEquals(expected, ByteBufUtil.getBytes(encoded));
+
+        // flags are recomputed from the parameters
+        encoded.clear();
+        codec.encode(encoded, decoded.with("out", false).with("entities", null));
+        assertEquals(BaseMessage.builder().from(message).out(false).entities(null).build(),
+                TlDeserializer.deserialize(encoded));
+    }
+
+    @Test
+    void container() {
+        // name is shadowed by message constructor of api scheme
+        Layout message = codec.layout(0x5bb8e511);
+        Layout container = codec.layout("msg_container");
+        assertNotNull(message);
+        assertNotNull(container);
+
+        Ping ping = ImmutablePing.of(42);
+        var object = container.create(List.of(
+                message.create(1L, 1, TlSerializer.sizeOf(ping), ping)));
+
+        ByteBuf buf = Unpooled.buffer();
+        codec.encode(buf, object);
+        DynamicTlObject decoded = codec.decode(buf);
+        DynamicTlObject body = decoded.<List<DynamicTlObject>>get("messages").get(0).get("body");
+        assertEquals(Ping.ID, body.identifier());
+        assertEquals(Long.valueOf(42), body.get("ping_id"));
+
+        buf.setIntLE(0, 0);
+        buf.readerIndex(0);
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(buf));
+    }
+
+    @Test
+    void malformedVectors() {
+        assertRejectsMalformedVectors(codec);
+    }
+
+    static void assertRejectsMalformedVectors(DynamicTlCodec codec) {
+        ByteBuf negative = Unpooled.buffer().writeIntLE(VECTOR_ID).writeIntLE(-1);
+        assertMalformedVector(() -> codec.decode(negative));
+
+        // must be rejected before allocation of array for elements
+        ByteBuf huge = Unpooled.buffer().writeIntLE(VECTOR_ID).writeIntLE(Integer.MAX_VALUE).writeLongLE(0);
+        assertMalformedVector(() -> codec.decode(huge));
+
+        // bare vector of %Message, each of which takes at least 20 bytes
+        ByteBuf container = Unpooled.buffer().writeIntLE(0x73f1f8dc).writeIntLE(2).writeZero(36);
+        assertMalformedVector(() -> codec.decode(container));
+    }
+
+    static void assertMalformedVector(Executable executable) {
+        var e = assertThrows(IllegalArgumentException.class, executable);
+        assertTrue(e.getMessage().startsWith("Incorrect vector size"), e.getMessage());
+    }
+
+    @Test
+    void detachedValues() {
+        assertDetachedValues(codec);
+    }
+
+    static void assertDetachedValues(DynamicTlCodec codec) {
+        byte[] nonce = new byte[16];
+        Arrays.fill(nonce, (byte) 1);
+        byte[] pq = {1, 2, 3, 4, 5};
+        var resPQ = ResPQ.builder()
+                .nonce(Unpooled.wrappedBuffer(nonce))
+                .serverNonce(Unpooled.wrappedBuffer(nonce))
+                .pq(Unpooled.wrappedBuffer(pq))
+                .serverPublicKeyFingerprints(List.of(1L))
+                .build();
+
+        ByteBuf buf = TlSerializer.serialize(Unpooled.buffer(), resPQ);
+        DynamicTlObject decoded = codec.decode(buf);
+        // values must not be views of the input
+        buf.release();
+
+        assertArrayEquals(nonce, ByteBufUtil.getBytes(decoded.get("nonce")));
+        assertArrayEquals(pq, ByteBufUtil.getBytes(decoded.get("pq")));
+    }
+
+    @Test
+    void compiled() {
+        // generation for the whole api scheme takes several seconds, so only types of test are used
+        var names = Set.of("message", "peerChat", "messageEntityBold");
+        TlTrees.Scheme api = ImmutableTlTrees.Scheme.builder()
+                .from(schemes[0])
+                .constructors(schemes[0].constructors().stream()
+                        .filter(t -> names.contains(t.name()))
+                        .toList())
+                .methods(List.of())
+                .build();
+        DynamicTlCodec compiled = DynamicTlCodec.compile(api, schemes[1]);
+        assertTrue(compiled.isCompiled());
+        assertSame(compiled, DynamicTlCodec.compile(api, schemes[1]));
+
+        var message = BaseMessage.builder()
+                .silent(true)
+                .id(2)
+                .peerId(ImmutablePeerChat.of(100))
+                .date(20)
+                .message("compiled")
+                .entities(List.of(ImmutableMessageEntityBold.of(0, 8)))
+                .groupedId(5L)
+                .build();
+        ByteBuf buf = TlSerializer.serialize(Unpooled.buffer(), message);
+        byte[] expected = ByteBufUtil.getBytes(buf);
+
+        DynamicTlObject decoded = compiled.decode(buf);
+        assertFalse(buf.isReadable());
+        assertEquals(codec.decode(Unpooled.wrappedBuffer(expected)).toString(), decoded.toString());
+
+        ByteBuf encoded = Unpooled.buffer();
+        compiled.encode(encoded, decoded);
+        assertArrayEquals(expected, ByteBufUtil.getBytes(encoded));
+
+        // objects of interpreting codec are encoded by their layouts
+        encoded.clear();
+        DynamicTlObject interpreted = codec.decode(Unpooled.wrappedBuffer(expected));
+        compiled.encode(encoded, interpreted.with("silent", false));
+        assertEquals(BaseMessage.builder().from(message).silent(false).build(),
+                TlDeserializer.deserialize(encoded));
+
+        Layout container = compiled.layout("msg_container");
+        Layout mtprotoMessage = compiled.layout(0x5bb8e511);
+        assertNotNull(container);
+        assertNotNull(mtprotoMessage);
+        Ping ping = ImmutablePing.of(42);
+        encoded.clear();
+        compiled.encode(encoded, container.create(List.of(
+                mtprotoMessage.create(1L, 1, TlSerializer.sizeOf(ping), ping))));
+        DynamicTlObject decodedContainer = compiled.decode(encoded);
+        DynamicTlObject body = decodedContainer.<List<DynamicTlObject>>get("messages").get(0).get("body");
+        assertEquals(Long.valueOf(42), body.get("ping_id"));
+
+        assertDetachedValues(compiled);
+        assertRejectsMalformedVectors(compiled);
+    }
+}
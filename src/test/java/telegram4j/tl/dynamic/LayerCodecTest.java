@@ -0,0 +1,114 @@
+/*
+ * Copyright 2023 Telegram4J
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package telegram4j.tl.dynamic;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.Test;
+import telegram4j.tl.BaseMessage;
+import telegram4j.tl.ImmutableMessageEntityBold;
+import telegram4j.tl.ImmutablePeerChat;
+import telegram4j.tl.MessageEntityBold;
+import telegram4j.tl.PeerChat;
+import telegram4j.tl.TlInfo;
+import telegram4j.tl.TlSerializer;
+import telegram4j.tl.parser.ImmutableTlTrees;
+import telegram4j.tl.parser.TlTrees;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LayerCodecTest {
+
+    // previous layer without messageEntityBold and with the unknown entity
+    static TlTrees.Scheme previousLayer() {
+        TlTrees.Scheme api = DynamicTlCodecTest.schemes[0];
+        var entity = ImmutableTlTrees.Type.of(TlTrees.Type.Kind.CONSTRUCTOR, "12345678", "messageEntityLegacy",
+                List.of(ImmutableTlTrees.Parameter.of("offset", "int")), "MessageEntity");
+        return ImmutableTlTrees.Scheme.builder()
+                .from(api)
+                .version(String.valueOf(TlInfo.LAYER - 1))
+                .constructors(Stream.concat(api.constructors().stream()
+                                .filter(t -> !t.name().equals("messageEntityBold")), Stream.of(entity))
+                        .toList())
+                .build();
+    }
+
+    @Test
+    void sharedConstructors() {
+        LayerCodec previous = LayerCodec.of(DynamicTlCodec.create(previousLayer(), DynamicTlCodecTest.schemes[1]));
+        var registry = LayerRegistry.of(LayerCodec.generated(), previous);
+        assertSame(previous, registry.get(TlInfo.LAYER - 1));
+        assertSame(LayerCodec.generated(), registry.get(TlInfo.LAYER));
+        assertNull(registry.get(TlInfo.LAYER + 1));
+        assertEquals(List.of(previous, LayerCodec.generated()), registry.layers());
+
+        assertTrue(previous.isShared(PeerChat.ID));
+        assertFalse(previous.isShared(MessageEntityBold.ID));
+        assertFalse(previous.isShared(0x12345678));
+        // entities can contain the unknown entity
+        assertFalse(previous.isShared(BaseMessage.ID));
+
+        var message = BaseMessage.builder()
+                .id(1)
+                .peerId(ImmutablePeerChat.of(100))
+                .date(10)
+                .message("text")
+                .build();
+        ByteBuf buf = TlSerializer.serialize(Unpooled.buffer(), message);
+        DynamicTlObject decoded = previous.decode(buf);
+        assertEquals(ImmutablePeerChat.of(100), decoded.get("peer_id"));
+
+        buf.clear();
+        previous.encode(buf, ImmutablePeerChat.of(200));
+        assertEquals(ImmutablePeerChat.of(200), previous.decode(buf));
+        assertThrows(IllegalArgumentException.class, () -> previous.encode(Unpooled.buffer(),
+                ImmutableMessageEntityBold.of(0, 1)));
+
+        buf.clear();
+        LayerCodec.generated().encode(buf, message);
+        assertEquals(message, LayerCodec.generated().decode(buf));
+        // dynamic objects are encoded only by codec of their layer
+        assertThrows(IllegalArgumentException.class, () -> LayerCodec.generated().encode(Unpooled.buffer(), decoded));
+    }
+
+    @Test
+    void compiledLayer() {
+        var peerChat = ImmutableTlTrees.Type.of(TlTrees.Type.Kind.CONSTRUCTOR, "36c6019a", "peerChat",
+                List.of(ImmutableTlTrees.Parameter.of("chat_id", "long")), "Peer");
+        var legacyMessage = ImmutableTlTrees.Type.of(TlTrees.Type.Kind.CONSTRUCTOR, "12345678", "legacyMessage",
+                List.of(ImmutableTlTrees.Parameter.of("peer", "Peer"),
+                        ImmutableTlTrees.Parameter.of("text", "string")), "LegacyMessage");
+        var scheme = ImmutableTlTrees.Scheme.builder()
+                .version("1")
+                .addConstructors(peerChat, legacyMessage)
+                .build();
+
+        LayerCodec layer = LayerCodec.of(DynamicTlCodec.compile(scheme));
+        assertTrue(layer.codec().isCompiled());
+        assertEquals(1, layer.layer());
+        assertTrue(layer.isShared(PeerChat.ID));
+
+        DynamicTlObject message = layer.codec().layout("legacyMessage").create(ImmutablePeerChat.of(1), "text");
+        ByteBuf buf = Unpooled.buffer();
+        layer.encode(buf, message);
+        DynamicTlObject decoded = layer.decode(buf);
+        assertEquals(message, decoded);
+        assertEquals(ImmutablePeerChat.of(1), decoded.get("peer"));
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2023 Telegram4J
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package telegram4j.tl.store;
+
+import io.netty.buffer.UnpooledByteBufAllocator;
+import org.junit.jupiter.api.Test;
+import telegram4j.tl.BaseChat;
+import telegram4j.tl.ChatPhotoEmpty;
+import telegram4j.tl.TlSerializer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TlObjectCacheTest {
+
+    static BaseChat chat(long id, String title) {
+        return BaseChat.builder()
+                .id(id)
+                .title(title)
+                .photo(ChatPhotoEmpty.instance())
+                .participantsCount(1)
+                .date(0)
+                .version(1)
+                .build();
+    }
+
+    @Test
+    void evictionBySlabs() {
+        int size = TlSerializer.sizeOf(chat(0, "chat #0"));
+        // two slabs with four chats in each
+        try (var cache = TlObjectCache.<Long, BaseChat>create(UnpooledByteBufAllocator.DEFAULT,
+                BaseChat::id, size * 4, size * 8L)) {
+
+            for (long i = 0; i < 8; i++) {
+                cache.put(chat(i, "chat #" + i));
+            }
+            assertEquals(8, cache.size());
+            assertEquals(chat(1, "chat #1"), cache.get(1L));
+
+            try (var view = cache.view(2L)) {
+                assertNotNull(view);
+
+                // third slab evicts the first one with least recently used chat #0
+                cache.put(chat(8, "chat #8"));
+                assertEquals(5, cache.size());
+                assertNull(cache.get(1L));
+                assertEquals(chat(5, "chat #5"), cache.get(5L));
+                assertEquals(2 * size * 4L, cache.memoryUsage());
+
+                assertEquals(BaseChat.ID, view.identifier());
+                assertEquals(chat(2, "chat #2"), view.get());
+            }
+
+            // replaced and invalidated chats free the second slab
+            for (long i = 4; i < 7; i++) {
+                cache.put(chat(i, "edited"));
+            }
+            assertEquals(chat(4, "edited"), cache.get(4L));
+            assertTrue(cache.invalidate(7L));
+            assertFalse(cache.invalidate(7L));
+            assertEquals(size * 4L, cache.memoryUsage());
+            assertEquals(4, cache.size());
+        }
+    }
+
+    @Test
+    void emptyLatestSlab() {
+        int size = TlSerializer.sizeOf(chat(0, "chat #0"));
+        try (var cache = TlObjectCache.<Long, BaseChat>create(UnpooledByteBufAllocator.DEFAULT,
+                BaseChat::id, size * 4, size * 8L)) {
+
+            for (long i = 0; i < 3; i++) {
+                cache.put(chat(i, "chat #" + i));
+            }
+            // the latest slab is kept until it's filled
+            for (long i = 0; i < 3; i++) {
+                assertTrue(cache.invalidate(i));
+            }
+            assertEquals(size * 4L, cache.memoryUsage());
+
+            // object doesn't fit in the rest of slab, so the empty slab is reclaimed
+            cache.put(chat(3, "chat #3 with longer title"));
+            assertEquals(size * 4L, cache.memoryUsage());
+
+            for (long i = 4; i < 7; i++) {
+                cache.put(chat(i, "chat #" + i));
+            }
+            assertEquals(size * 8L, cache.memoryUsage());
+            assertEquals(chat(3, "chat #3 with longer title"), cache.get(3L));
+        }
+    }
+}
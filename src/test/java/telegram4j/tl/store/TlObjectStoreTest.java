@@ -0,0 +1,130 @@
+/*
+ * Copyright 2023 Telegram4J
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package telegram4j.tl.store;
+
+import org.junit.jupiter.api.Test;
+import telegram4j.tl.BaseMessage;
+import telegram4j.tl.ChatEmpty;
+import telegram4j.tl.ImmutablePeerChat;
+import telegram4j.tl.api.TlObject;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TlObjectStoreTest {
+
+    @Test
+    void appendAndReopen() throws IOException {
+        Path dir = Files.createTempDirectory("tl-store");
+        try {
+            var messages = new ArrayList<BaseMessage>();
+            for (int i = 0; i < 10; i++) {
+                messages.add(BaseMessage.builder()
+                        .id(i)
+                        .peerId(ImmutablePeerChat.of(100))
+                        .date(i * 10)
+                        .message("message #" + i)
+                        .build());
+            }
+
+            // segments are small enough to hold only few messages
+            try (var store = TlObjectStore.open(dir, 256)) {
+                for (BaseMessage message : messages) {
+                    store.append(100, message.id(), message);
+                }
+                store.append(200, 0, ChatEmpty.builder().id(200).build());
+
+                assertEquals(messages.get(3), store.get(100, 3).get());
+                assertNull(store.get(100, 10));
+            }
+
+            try (var store = TlObjectStore.open(dir, 256)) {
+                assertEquals(11, store.size());
+                assertEquals(messages, store.<BaseMessage>findByIdentifier(BaseMessage.ID).stream()
+                        .map(TlObjectStore.Entry::get)
+                        .toList());
+
+                var updated = BaseMessage.builder()
+                        .from(messages.get(5))
+                        .message("edited")
+                        .build();
+                store.append(100, 5, updated);
+                TlObjectStore.Entry<TlObject> entry = store.get(100, 5);
+                assertEquals(updated, entry.get());
+                assertEquals(BaseMessage.ID, entry.identifier());
+                assertEquals(ChatEmpty.builder().id(200).build(), store.get(200, 0).get());
+            }
+        } finally {
+            try (Stream<Path> files = Files.walk(dir)) {
+                for (Path p : files.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(p);
+                }
+            }
+        }
+    }
+
+    @Test
+    void tornRecord() throws IOException {
+        Path dir = Files.createTempDirectory("tl-store");
+        try {
+            int size = TlObjectStore.HEADER_SIZE + 12;
+            // the second segment holds records after torn one
+            try (var store = TlObjectStore.open(dir, size * 3)) {
+                for (int i = 0; i < 5; i++) {
+                    store.append(i, 0, ChatEmpty.builder().id(i).build());
+                }
+            }
+            Path next = dir.resolve("00000001" + TlObjectStore.SEGMENT_SUFFIX);
+            assertTrue(Files.exists(next));
+
+            // payload of second record didn't reach the disk
+            Path segment = dir.resolve("00000000" + TlObjectStore.SEGMENT_SUFFIX);
+            byte[] bytes = Files.readAllBytes(segment);
+            bytes[size + TlObjectStore.HEADER_SIZE + 4] ^= 1;
+            Files.write(segment, bytes);
+
+            try (var store = TlObjectStore.open(dir, size * 3)) {
+                assertEquals(1, store.size());
+                assertEquals(ChatEmpty.builder().id(0).build(), store.get(0, 0).get());
+                assertNull(store.get(1, 0));
+                assertNull(store.get(4, 0));
+                assertFalse(Files.exists(next));
+
+                store.append(1, 0, ChatEmpty.builder().id(1).build());
+            }
+
+            try (var store = TlObjectStore.open(dir, size * 3)) {
+                assertEquals(2, store.size());
+                assertEquals(ChatEmpty.builder().id(1).build(), store.get(1, 0).get());
+            }
+        } finally {
+            try (Stream<Path> files = Files.walk(dir)) {
+                for (Path p : files.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(p);
+                }
+            }
+        }
+    }
+}